@@ -0,0 +1,79 @@
+package mined;
+
+// World-coordinate block reads and writes that remember the last chunk they touched.
+// Neighboring lookups mostly stay in one chunk, so they skip the chunk map entirely.
+// Not thread-safe, give each thread or algorithm its own instance.
+public class BlockAccess {
+    private static final int SIZE = ChunkManager.CHUNK_SIZE;
+    private static final int SHIFT = Integer.numberOfTrailingZeros(SIZE);
+    private static final int MASK = SIZE - 1;
+
+    private final ChunkManager chunkManager;
+    private Chunk lastChunk;
+    private int lastChunkX;
+    private int lastChunkZ;
+
+    public BlockAccess(ChunkManager chunkManager) {
+        this.chunkManager = chunkManager;
+    }
+
+    // AIR outside the world or where no chunk is loaded
+    public BlockType getBlock(int x, int y, int z) {
+        if (y < 0 || y >= ChunkManager.CHUNK_HEIGHT) {
+            return BlockType.AIR;
+        }
+        Chunk chunk = getChunk(x >> SHIFT, z >> SHIFT);
+        return chunk == null ? BlockType.AIR : chunk.getBlock(x & MASK, y, z & MASK);
+    }
+
+    // Returns false where no chunk is loaded or nothing changed
+    public boolean setBlock(int x, int y, int z, BlockType type) {
+        if (y < 0 || y >= ChunkManager.CHUNK_HEIGHT) {
+            return false;
+        }
+        Chunk chunk = getChunk(x >> SHIFT, z >> SHIFT);
+        return chunk != null && chunk.setBlock(x & MASK, y, z & MASK, type);
+    }
+
+    public boolean isSolid(int x, int y, int z) {
+        return BlockRegistry.isSolid(getBlock(x, y, z));
+    }
+
+    // For collisions: solid blocks, plus chunks that are not loaded yet and the floor below the
+    // world, so the player waits on the edge of missing terrain instead of falling through it
+    public boolean isBlocking(int x, int y, int z) {
+        if (y < 0) {
+            return true;
+        }
+        if (y >= ChunkManager.CHUNK_HEIGHT) {
+            return false;
+        }
+        Chunk chunk = getChunk(x >> SHIFT, z >> SHIFT);
+        return chunk == null || BlockRegistry.isSolid(chunk.getBlock(x & MASK, y, z & MASK));
+    }
+
+    // Y of the highest non-AIR block in the column, or -1
+    public int getHighestBlock(int x, int z) {
+        Chunk chunk = getChunk(x >> SHIFT, z >> SHIFT);
+        return chunk == null ? -1 : chunk.getHighestBlock(x & MASK, z & MASK);
+    }
+
+    public Chunk getChunk(int chunkX, int chunkZ) {
+        Chunk chunk = lastChunk;
+        // An unloaded chunk is no longer live, look it up again in case it was replaced
+        if (chunk != null && chunkX == lastChunkX && chunkZ == lastChunkZ && chunk.isLive()) {
+            return chunk;
+        }
+        chunk = chunkManager.getChunk(chunkX, chunkZ);
+        if (chunk != null) {
+            lastChunk = chunk;
+            lastChunkX = chunkX;
+            lastChunkZ = chunkZ;
+        }
+        return chunk;
+    }
+
+    public void reset() {
+        lastChunk = null;
+    }
+}
@@ -0,0 +1,102 @@
+package mined;
+
+import java.nio.ByteBuffer;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.TextureKey;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector2f;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.texture.image.ImageRaster;
+import com.jme3.util.BufferUtils;
+
+// All block face textures packed into one texture, so a chunk section needs a single material
+public class BlockAtlas {
+    public static final int TILE_PIXELS = 32;
+    public static final int COLUMNS = 4;
+    public static final int ROWS = 2;
+
+    // Atlas tiles, numbered row by row from the lower-left corner
+    public static final int GRASS_TOP = 0;
+    public static final int GRASS_SIDE = 1;
+    public static final int DIRT = 2;
+    public static final int STONE = 3;
+    public static final int SAND = 4;
+    public static final int BEDROCK = 5;
+
+    // Lower-left corner of a tile in texture coordinates
+    public static float getTileU(int tile) {
+        return (tile % COLUMNS) / (float) COLUMNS;
+    }
+
+    public static float getTileV(int tile) {
+        return (tile / COLUMNS) / (float) ROWS;
+    }
+
+    public static Material createMaterial(AssetManager assetManager) {
+        Material material = new Material(assetManager, "MatDefs/BlockAtlas.j3md");
+        material.setTexture("ColorMap", createTexture(assetManager));
+        material.setVector2("TileSize", new Vector2f(1f / COLUMNS, 1f / ROWS));
+        return material;
+    }
+
+    private static Texture createTexture(AssetManager assetManager) {
+        int width = COLUMNS * TILE_PIXELS;
+        int height = ROWS * TILE_PIXELS;
+        ByteBuffer data = BufferUtils.createByteBuffer(width * height * 4);
+        Image image = new Image(Image.Format.RGBA8, width, height, data, ColorSpace.sRGB);
+        ImageRaster atlas = ImageRaster.create(image);
+
+        // The source textures are cube nets with 32px faces: top, sides and bottom in the middle column
+        ImageRaster grass = loadRaster(assetManager, "Textures/grass.png");
+        ImageRaster dirt = loadRaster(assetManager, "Textures/dirt.png");
+        ImageRaster stone = loadRaster(assetManager, "Textures/stone.png");
+
+        copyFace(grass, 0, atlas, GRASS_TOP, null);
+        copyFace(grass, 1, atlas, GRASS_SIDE, null);
+        copyFace(dirt, 1, atlas, DIRT, null);
+        copyFace(stone, 1, atlas, STONE, null);
+        // The grey stone face tinted warm reads as sand, about (0.86, 0.80, 0.58) on average
+        copyFace(stone, 1, atlas, SAND, new ColorRGBA(1.95f, 1.8f, 1.3f, 1f));
+        copyFace(stone, 1, atlas, BEDROCK, new ColorRGBA(0.45f, 0.45f, 0.45f, 1f));
+
+        Texture2D texture = new Texture2D(image);
+        texture.setMagFilter(Texture.MagFilter.Nearest);
+        texture.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
+        return texture;
+    }
+
+    private static ImageRaster loadRaster(AssetManager assetManager, String path) {
+        // Not flipped, so raster rows run top to bottom like the image file
+        Texture texture = assetManager.loadTexture(new TextureKey(path, false));
+        return ImageRaster.create(texture.getImage());
+    }
+
+    // Copies face row netRow of a cube net into an atlas tile, upright and optionally tinted
+    private static void copyFace(ImageRaster source, int netRow, ImageRaster atlas, int tile, ColorRGBA tint) {
+        int sourceX = TILE_PIXELS;
+        int sourceY = netRow * TILE_PIXELS;
+        int tileX = (tile % COLUMNS) * TILE_PIXELS;
+        int tileY = (tile / COLUMNS) * TILE_PIXELS;
+        ColorRGBA color = new ColorRGBA();
+
+        for (int y = 0; y < TILE_PIXELS; y++) {
+            for (int x = 0; x < TILE_PIXELS; x++) {
+                // Atlas rows start at texture coordinate 0, the bottom of the face
+                source.getPixel(sourceX + x, sourceY + TILE_PIXELS - 1 - y, color);
+                if (tint != null) {
+                    color.r *= tint.r;
+                    color.g *= tint.g;
+                    color.b *= tint.b;
+                    color.clamp();
+                }
+                color.a = 1f;
+                atlas.setPixel(tileX + x, tileY + y, color);
+            }
+        }
+    }
+}
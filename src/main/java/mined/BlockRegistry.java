@@ -0,0 +1,84 @@
+package mined;
+
+import java.util.Arrays;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+
+// Render and physics properties per BlockType, kept in flat arrays indexed by ordinal
+// so the mesher can read them without touching the enum or any map
+public final class BlockRegistry {
+    private static final BlockType[] TYPES = BlockType.values();
+    private static final int FACE_TOP = 0;
+    private static final int FACE_SIDE = 1;
+    private static final int FACE_BOTTOM = 2;
+
+    private static final boolean[] OPAQUE = new boolean[TYPES.length];
+    private static final boolean[] SOLID = new boolean[TYPES.length];
+    // Atlas tile per ordinal and face group (top, side, bottom), -1 for types that are never drawn
+    private static final int[] TILES = new int[TYPES.length * 3];
+    private static Material atlasMaterial;
+
+    static {
+        Arrays.fill(TILES, -1);
+        register(BlockType.AIR, false, false, -1, -1, -1);
+        register(BlockType.GRASS, true, true, BlockAtlas.GRASS_TOP, BlockAtlas.GRASS_SIDE, BlockAtlas.DIRT);
+        register(BlockType.DIRT, true, true, BlockAtlas.DIRT, BlockAtlas.DIRT, BlockAtlas.DIRT);
+        register(BlockType.STONE, true, true, BlockAtlas.STONE, BlockAtlas.STONE, BlockAtlas.STONE);
+        register(BlockType.SAND, true, true, BlockAtlas.SAND, BlockAtlas.SAND, BlockAtlas.SAND);
+        register(BlockType.BEDROCK, true, true, BlockAtlas.BEDROCK, BlockAtlas.BEDROCK, BlockAtlas.BEDROCK);
+    }
+
+    private BlockRegistry() {
+    }
+
+    private static void register(BlockType type, boolean opaque, boolean solid, int top, int side, int bottom) {
+        int id = type.ordinal();
+        OPAQUE[id] = opaque;
+        SOLID[id] = solid;
+        TILES[id * 3 + FACE_TOP] = top;
+        TILES[id * 3 + FACE_SIDE] = side;
+        TILES[id * 3 + FACE_BOTTOM] = bottom;
+    }
+
+    // Creates the shared atlas material, must run on the render thread before any chunk is meshed
+    public static void init(AssetManager assetManager) {
+        atlasMaterial = BlockAtlas.createMaterial(assetManager);
+    }
+
+    // Material shared by all chunk sections, null until init() ran
+    public static Material getAtlasMaterial() {
+        return atlasMaterial;
+    }
+
+    // Ordinal-based lookups for hot loops over packed block data
+
+    public static boolean isOpaque(int id) {
+        return OPAQUE[id];
+    }
+
+    public static boolean isSolid(int id) {
+        return SOLID[id];
+    }
+
+    public static boolean isRendered(int id) {
+        return TILES[id * 3 + FACE_SIDE] != -1;
+    }
+
+    public static int getTile(int id, Direction face) {
+        int group = face == Direction.UP ? FACE_TOP : face == Direction.DOWN ? FACE_BOTTOM : FACE_SIDE;
+        return TILES[id * 3 + group];
+    }
+
+    public static boolean isOpaque(BlockType type) {
+        return OPAQUE[type.ordinal()];
+    }
+
+    public static boolean isSolid(BlockType type) {
+        return SOLID[type.ordinal()];
+    }
+
+    public static int getTile(BlockType type, Direction face) {
+        return getTile(type.ordinal(), face);
+    }
+}
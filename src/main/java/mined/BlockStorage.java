@@ -0,0 +1,191 @@
+package mined;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BlockStorage {
+    private static final BlockType[] TYPES = BlockType.values();
+    private static final int MAX_POOLED = 1024;
+    // Storage of unloaded chunks, handed out again to new sections
+    private static final Queue<BlockStorage> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+
+    private final int volume;
+    // Every entry is palette[0] while data is null, see compact()
+    private BlockType[] palette;
+    private int paletteSize;
+    private int bitsPerEntry;
+    private int entriesPerLong;
+    private long mask;
+    private long[] data;
+
+    public BlockStorage(int volume) {
+        this.volume = volume;
+        this.palette = new BlockType[2];
+        this.palette[0] = BlockType.AIR;
+        this.paletteSize = 1;
+        resize(1);
+    }
+
+    // A cleared storage from the pool when one fits, otherwise a new one
+    public static BlockStorage obtain(int volume) {
+        BlockStorage storage = POOL.poll();
+        if (storage != null) {
+            POOL_SIZE.decrementAndGet();
+            if (storage.volume == volume) {
+                storage.clear();
+                return storage;
+            }
+        }
+        return new BlockStorage(volume);
+    }
+
+    // The caller must drop every reference to the storage, and no other thread may still be
+    // reading it (Chunk.release does this under its write lock)
+    public static void release(BlockStorage storage) {
+        if (POOL_SIZE.incrementAndGet() <= MAX_POOLED) {
+            POOL.add(storage);
+        } else {
+            POOL_SIZE.decrementAndGet();
+        }
+    }
+
+    public BlockType get(int index) {
+        if (data == null) {
+            return palette[0];
+        }
+        return palette[getPaletteIndex(index)];
+    }
+
+    public void set(int index, BlockType type) {
+        if (data == null) {
+            if (type == palette[0]) {
+                return;
+            }
+            // Back to packed entries, all zero so they still read as palette[0]
+            resize(1);
+        }
+        int paletteIndex = indexOf(type);
+        if (paletteIndex == -1) {
+            paletteIndex = addToPalette(type);
+        }
+        setPaletteIndex(index, paletteIndex);
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+    public int getPaletteSize() {
+        return paletteSize;
+    }
+
+    public int getBitsPerEntry() {
+        return bitsPerEntry;
+    }
+
+    public boolean isUniform() {
+        return data == null;
+    }
+
+    public long getMemoryUsage() {
+        // Packed words plus palette references, ignoring object headers
+        long words = data != null ? data.length : 0;
+        return words * Long.BYTES + (long) palette.length * 4;
+    }
+
+    // Drops the packed words when every entry holds the same type, keeping only that type.
+    // The next set() of another type unpacks the storage again. Returns true if compacted.
+    public boolean compact() {
+        if (data == null) {
+            return true;
+        }
+        int first = getPaletteIndex(0);
+        for (int i = 1; i < volume; i++) {
+            if (getPaletteIndex(i) != first) {
+                return false;
+            }
+        }
+        BlockType type = palette[first];
+        Arrays.fill(palette, null);
+        palette[0] = type;
+        paletteSize = 1;
+        data = null;
+        bitsPerEntry = 0;
+        entriesPerLong = 0;
+        mask = 0L;
+        return true;
+    }
+
+    // Back to all AIR. The packed words keep their width, so nothing is reallocated.
+    private void clear() {
+        if (data == null) {
+            resize(1);
+        } else {
+            Arrays.fill(data, 0L);
+        }
+        Arrays.fill(palette, null);
+        palette[0] = BlockType.AIR;
+        paletteSize = 1;
+    }
+
+    private int getPaletteIndex(int index) {
+        int word = index / entriesPerLong;
+        int shift = (index % entriesPerLong) * bitsPerEntry;
+        return (int) ((data[word] >>> shift) & mask);
+    }
+
+    private void setPaletteIndex(int index, int paletteIndex) {
+        int word = index / entriesPerLong;
+        int shift = (index % entriesPerLong) * bitsPerEntry;
+        data[word] = (data[word] & ~(mask << shift)) | ((long) paletteIndex << shift);
+    }
+
+    private int indexOf(BlockType type) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int addToPalette(BlockType type) {
+        // Widen the packed indices only when the palette outgrows the current width
+        if (paletteSize == (1 << bitsPerEntry)) {
+            resize(bitsPerEntry + 1);
+        }
+        if (paletteSize == palette.length) {
+            palette = Arrays.copyOf(palette, Math.min(palette.length * 2, TYPES.length));
+        }
+        palette[paletteSize] = type;
+        return paletteSize++;
+    }
+
+    private void resize(int newBits) {
+        long[] oldData = data;
+        int oldBits = bitsPerEntry;
+        int oldEntriesPerLong = entriesPerLong;
+        long oldMask = mask;
+
+        bitsPerEntry = newBits;
+        entriesPerLong = Long.SIZE / newBits;
+        mask = (1L << newBits) - 1;
+        data = new long[(volume + entriesPerLong - 1) / entriesPerLong];
+
+        if (oldData == null) {
+            return;
+        }
+
+        // Repack existing entries into the wider layout
+        for (int i = 0; i < volume; i++) {
+            int shift = (i % oldEntriesPerLong) * oldBits;
+            int value = (int) ((oldData[i / oldEntriesPerLong] >>> shift) & oldMask);
+            if (value != 0) {
+                setPaletteIndex(i, value);
+            }
+        }
+    }
+}
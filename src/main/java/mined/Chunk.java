@@ -1,214 +1,505 @@
 package mined;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import com.jme3.material.Material;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.Node;
-import com.jme3.scene.VertexBuffer.Type;
-import com.jme3.util.BufferUtils;
 
 public class Chunk {
+    public static final int SECTION_HEIGHT = 16;
+    // Coarsest level of detail, meshed from cells of 2^MAX_LOD blocks
+    public static final int MAX_LOD = 3;
+    private static final ThreadLocal<ChunkMesher> MESHER = ThreadLocal.withInitial(ChunkMesher::new);
+
+    private final ChunkManager chunkManager;
     private final Node chunkNode;
     private final int x, z;
     private final int size;
     private final int height;
-    private final Material dirtMaterial;
-    private final Material grassMaterial;
-    private final Material stoneMaterial;
-    private final BlockType[][][] blocks;
+    private final int sectionVolume;
+    private final BlockStorage[] sections;
+    private final int[] sectionBlockCounts;
+    // Y of the highest non-AIR block per column (x + z * size), or -1 for an empty column
+    private final short[] heightmap;
+    // One atlas geometry per section, null while the section has nothing to draw
+    private final Geometry[] sectionGeometries;
+    // Bumped whenever a section's mesh inputs change, so stale mesh results can be told apart
+    private final AtomicIntegerArray sectionStamps;
+    // Downsampled cells per section and LOD at index sectionY * MAX_LOD + lod - 1. Built on
+    // demand by mesh workers under the read lock, dropped when the section is edited or the
+    // chunk unloaded.
+    private final AtomicReferenceArray<byte[]> lodCells;
+    private final AtomicInteger dirtySections = new AtomicInteger();
+    // Mesh workers read block data under the read lock, edits take the write lock.
+    // Reads on the render thread need no lock, it is the only thread editing published chunks.
+    private final ReentrantReadWriteLock blockLock = new ReentrantReadWriteLock();
+    private volatile MeshingMode meshingMode = MeshingMode.GREEDY;
+    private volatile boolean live;
+    private volatile int lod;
+    // Set once a mesh has been applied, render thread only
+    private boolean meshed;
 
-    public Chunk(int x, int z, int size, int height,
-                Material dirtMaterial, Material grassMaterial, Material stoneMaterial) {
+    public Chunk(ChunkManager chunkManager, int x, int z, int size, int height) {
+        this.chunkManager = chunkManager;
         this.x = x;
         this.z = z;
         this.size = size;
         this.height = height;
-        this.dirtMaterial = dirtMaterial;
-        this.grassMaterial = grassMaterial;
-        this.stoneMaterial = stoneMaterial;
-        this.blocks = new BlockType[size][height][size];
+        // Sections stay null (all AIR) until something is placed in them
+        this.sectionVolume = size * SECTION_HEIGHT * size;
+        this.sections = new BlockStorage[height / SECTION_HEIGHT];
+        this.sectionBlockCounts = new int[sections.length];
+        this.heightmap = new short[size * size];
+        Arrays.fill(heightmap, (short) -1);
+        this.sectionGeometries = new Geometry[sections.length];
+        this.sectionStamps = new AtomicIntegerArray(sections.length);
+        this.lodCells = new AtomicReferenceArray<>(sections.length * MAX_LOD);
         this.chunkNode = new Node("Chunk_" + x + "_" + z);
-        
-        // Initialize all blocks to AIR
-        for (int bx = 0; bx < size; bx++) {
-            for (int by = 0; by < height; by++) {
-                for (int bz = 0; bz < size; bz++) {
-                    blocks[bx][by][bz] = BlockType.AIR;
+    }
+
+    // Returns true when the stored block actually changed
+    public boolean setBlock(int x, int y, int z, BlockType type) {
+        if (!isInBounds(x, y, z)) {
+            return false;
+        }
+
+        blockLock.writeLock().lock();
+        try {
+            if (!storeBlock(x, y, z, type)) {
+                return false;
+            }
+        } finally {
+            blockLock.writeLock().unlock();
+        }
+
+        if (live) {
+            markEditDirty(x, y, z);
+        }
+        return true;
+    }
+
+    private boolean storeBlock(int x, int y, int z, BlockType type) {
+        int sectionY = y / SECTION_HEIGHT;
+        BlockStorage section = sections[sectionY];
+        if (section == null) {
+            if (type == BlockType.AIR) {
+                return false;
+            }
+            section = BlockStorage.obtain(sectionVolume);
+            sections[sectionY] = section;
+        }
+
+        int index = getIndex(x, y, z);
+        BlockType previous = section.get(index);
+        if (previous == type) {
+            return false;
+        }
+        section.set(index, type);
+
+        if (previous == BlockType.AIR) {
+            sectionBlockCounts[sectionY]++;
+        } else if (type == BlockType.AIR && --sectionBlockCounts[sectionY] == 0) {
+            // Collapse emptied sections back to the all-AIR flag. The write lock is held, so no
+            // reader still has the storage and it can go straight back to the pool.
+            sections[sectionY] = null;
+            BlockStorage.release(section);
+        }
+        updateHeightmap(x, y, z, type);
+        for (int lod = 1; lod <= MAX_LOD; lod++) {
+            lodCells.set(sectionY * MAX_LOD + lod - 1, null);
+        }
+        return true;
+    }
+
+    private void updateHeightmap(int x, int y, int z, BlockType type) {
+        int column = x + z * size;
+        if (type != BlockType.AIR) {
+            if (y > heightmap[column]) {
+                heightmap[column] = (short) y;
+            }
+        } else if (y == heightmap[column]) {
+            // The top block was removed, look further down for the new one
+            heightmap[column] = (short) scanColumn(x, y - 1, z);
+        }
+    }
+
+    private int scanColumn(int x, int fromY, int z) {
+        for (int sectionY = fromY / SECTION_HEIGHT; sectionY >= 0 && fromY >= 0; sectionY--) {
+            BlockStorage section = sections[sectionY];
+            if (section == null) {
+                continue;
+            }
+            int top = Math.min(fromY, (sectionY + 1) * SECTION_HEIGHT - 1);
+            for (int y = top; y >= sectionY * SECTION_HEIGHT; y--) {
+                if (section.get(getIndex(x, y, z)) != BlockType.AIR) {
+                    return y;
                 }
             }
         }
+        return -1;
     }
 
-    public void setBlock(int x, int y, int z, BlockType type) {
-        if (isInBounds(x, y, z)) {
-            blocks[x][y][z] = type;
+    // Dirties the edited section plus whatever shares a face with the edited block's cell.
+    // Above LOD 0 a cell spans several blocks, and neighbors mesh against whole border cells.
+    private void markEditDirty(int x, int y, int z) {
+        int scale = 1 << lod;
+        int lastCell = size / scale - 1;
+        int sectionY = y / SECTION_HEIGHT;
+        int cellY = (y % SECTION_HEIGHT) / scale;
+        markSectionDirty(sectionY);
+        if (cellY == 0 && sectionY > 0) {
+            markSectionDirty(sectionY - 1);
+        }
+        if (cellY == SECTION_HEIGHT / scale - 1 && sectionY < sections.length - 1) {
+            markSectionDirty(sectionY + 1);
+        }
+
+        if (x / scale == 0) markNeighborDirty(Direction.WEST, sectionY);
+        if (x / scale == lastCell) markNeighborDirty(Direction.EAST, sectionY);
+        if (z / scale == 0) markNeighborDirty(Direction.SOUTH, sectionY);
+        if (z / scale == lastCell) markNeighborDirty(Direction.NORTH, sectionY);
+    }
+
+    private void markNeighborDirty(Direction direction, int sectionY) {
+        Chunk neighbor = getNeighbor(direction);
+        if (neighbor != null) {
+            neighbor.markSectionDirty(sectionY);
         }
     }
 
+    public void markSectionDirty(int sectionY) {
+        sectionStamps.incrementAndGet(sectionY);
+        dirtySections.getAndUpdate(mask -> mask | (1 << sectionY));
+        if (chunkManager != null) {
+            chunkManager.markChunkDirty(this);
+        }
+    }
+
+    // Invalidates in-flight mesh results without queueing a rebuild (e.g. a neighbor changed)
+    public void invalidateSections() {
+        for (int i = 0; i < sections.length; i++) {
+            sectionStamps.incrementAndGet(i);
+        }
+    }
+
+    public int takeDirtySections() {
+        return dirtySections.getAndSet(0);
+    }
+
+    public int getAllSectionsMask() {
+        return (1 << sections.length) - 1;
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    // Called once the chunk is published, from then on edits are tracked for remeshing
+    public void setLive(boolean live) {
+        this.live = live;
+    }
+
+    // Held by mesh workers while they read this chunk's blocks
+    public Lock getReadLock() {
+        return blockLock.readLock();
+    }
+
     public BlockType getBlock(int x, int y, int z) {
         if (isInBounds(x, y, z)) {
-            return blocks[x][y][z];
+            BlockStorage section = sections[y / SECTION_HEIGHT];
+            if (section != null) {
+                return section.get(getIndex(x, y, z));
+            }
         }
         return BlockType.AIR;
     }
 
+    // Stores full sections of a single type as just that type, dropping their packed words.
+    // Called once generation has filled the chunk; later edits unpack a section again.
+    public void compactSections() {
+        blockLock.writeLock().lock();
+        try {
+            for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+                if (isSectionFull(sectionY)) {
+                    sections[sectionY].compact();
+                }
+            }
+        } finally {
+            blockLock.writeLock().unlock();
+        }
+    }
+
+    // Cells of 2^lod blocks covering one section, as BlockType ordinals indexed
+    // (cellY * cells + cellZ) * cells + cellX, or null for an all-AIR section.
+    // Callers off the render thread must hold the read lock.
+    public byte[] getLodCells(int sectionY, int lod) {
+        BlockStorage section = sections[sectionY];
+        if (section == null) {
+            return null;
+        }
+        int slot = sectionY * MAX_LOD + lod - 1;
+        byte[] cells = lodCells.get(slot);
+        if (cells == null) {
+            // Two workers may build the same cells at once, both results are identical.
+            // Unloaded chunks do not keep them, the cache budget counts block data only.
+            cells = downsample(section, 1 << lod);
+            if (live) {
+                lodCells.set(slot, cells);
+            }
+        }
+        return cells;
+    }
+
+    // A cell that is at least half opaque takes the type of its highest opaque block, so grass
+    // stays on top; anything less reads as AIR
+    private byte[] downsample(BlockStorage section, int scale) {
+        int cells = size / scale;
+        int cellsY = SECTION_HEIGHT / scale;
+        byte[] top = new byte[cells * cells * cellsY];
+        int[] opaque = new int[top.length];
+        for (int y = SECTION_HEIGHT - 1; y >= 0; y--) {
+            for (int z = 0; z < size; z++) {
+                int row = ((y / scale) * cells + z / scale) * cells;
+                for (int x = 0; x < size; x++) {
+                    int type = section.get((y * size + z) * size + x).ordinal();
+                    if (BlockRegistry.isOpaque(type) && opaque[row + x / scale]++ == 0) {
+                        top[row + x / scale] = (byte) type;
+                    }
+                }
+            }
+        }
+
+        int volume = scale * scale * scale;
+        for (int i = 0; i < top.length; i++) {
+            if (opaque[i] * 2 < volume) {
+                top[i] = (byte) BlockType.AIR.ordinal();
+            }
+        }
+        return top;
+    }
+
+    public int getSectionCount() {
+        return sections.length;
+    }
+
+    public boolean isSectionEmpty(int sectionY) {
+        return sections[sectionY] == null;
+    }
+
+    public boolean isSectionFull(int sectionY) {
+        return sectionBlockCounts[sectionY] == sectionVolume;
+    }
+
+    private int getIndex(int x, int y, int z) {
+        return ((y % SECTION_HEIGHT) * size + z) * size + x;
+    }
+
     private boolean isInBounds(int x, int y, int z) {
         return x >= 0 && x < size && y >= 0 && y < height && z >= 0 && z < size;
     }
 
+    // Builds and attaches the whole mesh on the calling thread
     public void updateMesh() {
-        chunkNode.detachAllChildren();
-        
-        // Separate meshes for different materials
-        List<Vector3f> dirtVertices = new ArrayList<>();
-        List<Vector3f> grassVertices = new ArrayList<>();
-        List<Vector3f> stoneVertices = new ArrayList<>();
-        
-        // Generate mesh data
-        for (int bx = 0; bx < size; bx++) {
-            for (int by = 0; by < height; by++) {
-                for (int bz = 0; bz < size; bz++) {
-                    if (blocks[bx][by][bz] != BlockType.AIR) {
-                        addBlockToMesh(bx, by, bz, blocks[bx][by][bz],
-                                     dirtVertices, grassVertices, stoneVertices);
-                    }
+        applyMeshData(buildMeshData(getAllSectionsMask()));
+    }
+
+    // Safe to call from a worker thread, only reads block data
+    public ChunkMeshData buildMeshData(int sectionMask) {
+        // Capture stamps before reading blocks, edits made after this point invalidate the result
+        int[] stamps = new int[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            stamps[i] = sectionStamps.get(i);
+        }
+
+        ChunkMesher mesher = MESHER.get();
+        int lod = this.lod;
+        MeshData[] meshes = new MeshData[sections.length];
+        for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+            if ((sectionMask & (1 << sectionY)) == 0 || isSectionEmpty(sectionY)) {
+                continue;
+            }
+
+            mesher.meshSection(this, sectionY, meshingMode, lod);
+            MeshBuilder builder = mesher.getBuilder();
+            if (!builder.isEmpty()) {
+                meshes[sectionY] = builder.build();
+            }
+        }
+        return new ChunkMeshData(sectionMask, stamps, meshes);
+    }
+
+    // Must be called on the render thread
+    public void applyMeshData(ChunkMeshData data) {
+        for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+            // Skip sections that changed since the data was built, a newer rebuild covers them
+            if (!data.hasSection(sectionY) || data.getStamp(sectionY) != sectionStamps.get(sectionY)) {
+                continue;
+            }
+
+            MeshData mesh = data.getMesh(sectionY);
+            Geometry geometry = sectionGeometries[sectionY];
+            if (mesh == null) {
+                if (geometry != null) {
+                    geometry.removeFromParent();
+                    sectionGeometries[sectionY] = null;
+                    releaseMesh(geometry.getMesh());
                 }
+                continue;
+            }
+
+            // Reuse the section's geometry and refill its mesh buffers in place
+            if (geometry == null) {
+                Mesh sectionMesh = chunkManager != null ? chunkManager.getMeshPool().obtain() : new Mesh();
+                mesh.writeTo(sectionMesh);
+                geometry = new Geometry("Section_" + sectionY, sectionMesh);
+                geometry.setMaterial(BlockRegistry.getAtlasMaterial());
+                sectionGeometries[sectionY] = geometry;
+                chunkNode.attachChild(geometry);
+            } else {
+                mesh.writeTo(geometry.getMesh());
+                geometry.updateModelBound();
             }
         }
-        
-        // Create and attach meshes
-        if (!dirtVertices.isEmpty()) {
-            attachMesh(dirtVertices, dirtMaterial, "DirtMesh");
-        }
-        if (!grassVertices.isEmpty()) {
-            attachMesh(grassVertices, grassMaterial, "GrassMesh");
-        }
-        if (!stoneVertices.isEmpty()) {
-            attachMesh(stoneVertices, stoneMaterial, "StoneMesh");
-        }
-    }
-
-    private void addBlockToMesh(int x, int y, int z, BlockType type,
-                              List<Vector3f> dirtVerts,
-                              List<Vector3f> grassVerts,
-                              List<Vector3f> stoneVerts) {
-        float wx = this.x + x;
-        float wy = y;
-        float wz = this.z + z;
-
-        List<Vector3f> targetList;
-        switch (type) {
-            case DIRT:
-                targetList = dirtVerts;
-                break;
-            case GRASS:
-                targetList = grassVerts;
-                break;
-            case STONE:
-                targetList = stoneVerts;
-                break;
-            default:
-                return;
-        }
-
-        // Only add faces that are exposed to air
-        // Front face
-        if (z == size - 1 || getBlock(x, y, z + 1) == BlockType.AIR) {
-            addFace(targetList, wx, wy, wz, 1, 0, 0, 0, 1, 0);
-        }
-        // Back face
-        if (z == 0 || getBlock(x, y, z - 1) == BlockType.AIR) {
-            addFace(targetList, wx + 1, wy, wz, -1, 0, 0, 0, 1, 0);
-        }
-        // Right face
-        if (x == size - 1 || getBlock(x + 1, y, z) == BlockType.AIR) {
-            addFace(targetList, wx + 1, wy, wz, 0, 0, 1, 0, 1, 0);
-        }
-        // Left face
-        if (x == 0 || getBlock(x - 1, y, z) == BlockType.AIR) {
-            addFace(targetList, wx, wy, wz, 0, 0, -1, 0, 1, 0);
-        }
-        // Top face
-        if (y == height - 1 || getBlock(x, y + 1, z) == BlockType.AIR) {
-            addFace(targetList, wx, wy + 1, wz, 1, 0, 0, 0, 0, 1);
-        }
-        // Bottom face
-        if (y == 0 || getBlock(x, y - 1, z) == BlockType.AIR) {
-            addFace(targetList, wx, wy, wz, 1, 0, 0, 0, 0, 1);
-        }
-    }
-
-    private void addFace(List<Vector3f> verts, float x, float y, float z,
-                        float dx, float dy, float dz,
-                        float ux, float uy, float uz) {
-        verts.add(new Vector3f(x, y, z));
-        verts.add(new Vector3f(x + dx, y + dy, z + dz));
-        verts.add(new Vector3f(x + dx + ux, y + dy + uy, z + dz + uz));
-        verts.add(new Vector3f(x + ux, y + uy, z + uz));
-    }
-
-private void attachMesh(List<Vector3f> vertices, Material material, String name) {
-    if (vertices.isEmpty()) return;
-
-    Mesh mesh = new Mesh();
-    Vector3f[] vertexArray = vertices.toArray(new Vector3f[0]);
-    
-    // Generate normals (one normal per vertex)
-    Vector3f[] normals = new Vector3f[vertexArray.length];
-    for (int i = 0; i < vertices.size(); i += 4) {
-        Vector3f v1 = vertexArray[i];
-        Vector3f v2 = vertexArray[i + 1];
-        Vector3f v3 = vertexArray[i + 2];
-        
-        Vector3f edge1 = v2.subtract(v1);
-        Vector3f edge2 = v3.subtract(v1);
-        Vector3f normal = edge1.cross(edge2).normalizeLocal();
-        
-        normals[i] = normal;
-        normals[i + 1] = normal;
-        normals[i + 2] = normal;
-        normals[i + 3] = normal;
-    }
-    
-    // Generate indices for quads
-    int[] indices = new int[vertices.size() * 6 / 4];
-    for (int i = 0, j = 0; i < vertices.size(); i += 4, j += 6) {
-        indices[j] = i;
-        indices[j + 1] = i + 1;
-        indices[j + 2] = i + 2;
-        indices[j + 3] = i;
-        indices[j + 4] = i + 2;
-        indices[j + 5] = i + 3;
-    }
-
-    mesh.setBuffer(Type.Position, 3, BufferUtils.createFloatBuffer(vertexArray));
-    mesh.setBuffer(Type.Normal, 3, BufferUtils.createFloatBuffer(normals));
-    mesh.setBuffer(Type.Index, 3, BufferUtils.createIntBuffer(indices));
-    mesh.updateBound();
-
-    Geometry geo = new Geometry(name, mesh);
-    geo.setMaterial(material);
-    chunkNode.attachChild(geo);
-}
+        meshed = true;
+    }
+
+    public boolean isMeshed() {
+        return meshed;
+    }
+
+    private void releaseMesh(Mesh mesh) {
+        if (chunkManager != null) {
+            chunkManager.getMeshPool().release(mesh);
+        }
+    }
+
+    // Detaches the chunk and hands its meshes back to the pool, block data is kept.
+    // Render thread only, the chunk is remeshed when it is published again.
+    public void releaseMeshes() {
+        chunkNode.removeFromParent();
+        meshed = false;
+        for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+            Geometry geometry = sectionGeometries[sectionY];
+            if (geometry != null) {
+                geometry.removeFromParent();
+                sectionGeometries[sectionY] = null;
+                releaseMesh(geometry.getMesh());
+            }
+        }
+        // Downsampled cells are rebuilt on demand, a cached chunk should only hold block data
+        blockLock.writeLock().lock();
+        try {
+            clearLodCells();
+        } finally {
+            blockLock.writeLock().unlock();
+        }
+    }
+
+    private void clearLodCells() {
+        for (int i = 0; i < lodCells.length(); i++) {
+            lodCells.set(i, null);
+        }
+    }
+
+    // Hands section storage and meshes back to the pools for good.
+    // Render thread only, the chunk reads as all AIR afterwards.
+    public void release() {
+        releaseMeshes();
+        // Waits for mesh workers still copying from this chunk. Readers that lock it later
+        // find the sections gone, so pooled storage is never read through a stale chunk.
+        blockLock.writeLock().lock();
+        try {
+            for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+                BlockStorage section = sections[sectionY];
+                if (section != null) {
+                    sections[sectionY] = null;
+                    sectionBlockCounts[sectionY] = 0;
+                    BlockStorage.release(section);
+                }
+            }
+            Arrays.fill(heightmap, (short) -1);
+            clearLodCells();
+        } finally {
+            blockLock.writeLock().unlock();
+        }
+    }
 
     public Node getNode() {
         return chunkNode;
     }
 
+    public int getX() {
+        return x;
+    }
+
+    public int getChunkX() {
+        return Math.floorDiv(x, size);
+    }
+
+    public int getChunkZ() {
+        return Math.floorDiv(z, size);
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    // Loaded chunk touching this one on the given side, or null
+    public Chunk getNeighbor(Direction direction) {
+        if (chunkManager == null || direction == Direction.UP || direction == Direction.DOWN) {
+            return null;
+        }
+        Vector3f offset = direction.getNormal();
+        return chunkManager.getChunk(getChunkX() + (int) offset.x, getChunkZ() + (int) offset.z);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLod() {
+        return lod;
+    }
+
+    // Takes effect at the next mesh build, 0 is full detail
+    public void setLod(int lod) {
+        this.lod = lod;
+    }
+
+    public MeshingMode getMeshingMode() {
+        return meshingMode;
+    }
+
+    public void setMeshingMode(MeshingMode meshingMode) {
+        this.meshingMode = meshingMode;
+    }
+
+    // Estimated bytes of block data held by this chunk
+    public long getMemoryUsage() {
+        long bytes = (long) heightmap.length * Short.BYTES + (long) sectionBlockCounts.length * Integer.BYTES;
+        for (BlockStorage section : sections) {
+            if (section != null) {
+                bytes += section.getMemoryUsage();
+            }
+        }
+        return bytes;
+    }
+
     public int getHighestBlock(int x, int z) {
         if (x < 0 || x >= size || z < 0 || z >= size) {
             return -1;
         }
-        
-        for (int y = height - 1; y >= 0; y--) {
-            if (blocks[x][y][z] != BlockType.AIR) {
-                return y;
-            }
-        }
-        return -1;
+        return heightmap[x + z * size];
     }
-}
\ No newline at end of file
+}
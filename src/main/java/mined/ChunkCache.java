@@ -0,0 +1,70 @@
+package mined;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Chunks that left the render distance, kept with their block data (and edits) so walking back
+// restores them instead of generating them again. The least recently unloaded chunks are
+// dropped once the estimated size exceeds the byte budget. Render thread only.
+public class ChunkCache {
+    private final LinkedHashMap<Long, Chunk> chunks = new LinkedHashMap<>();
+    private long budgetBytes;
+    private long usedBytes;
+
+    public ChunkCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    // The chunk must be unloaded and no longer attached to the scene
+    public void put(long chunkKey, Chunk chunk) {
+        Chunk previous = chunks.put(chunkKey, chunk);
+        if (previous != null) {
+            usedBytes -= previous.getMemoryUsage();
+            previous.release();
+        }
+        usedBytes += chunk.getMemoryUsage();
+        evict();
+    }
+
+    // Removes and returns the cached chunk, or null
+    public Chunk take(long chunkKey) {
+        Chunk chunk = chunks.remove(chunkKey);
+        if (chunk != null) {
+            usedBytes -= chunk.getMemoryUsage();
+        }
+        return chunk;
+    }
+
+    public void setBudget(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        evict();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    public void clear() {
+        for (Chunk chunk : chunks.values()) {
+            chunk.release();
+        }
+        chunks.clear();
+        usedBytes = 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Long, Chunk>> it = chunks.entrySet().iterator();
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            Chunk chunk = it.next().getValue();
+            it.remove();
+            usedBytes -= chunk.getMemoryUsage();
+            // Storage goes back to the pool, the chunk is generated from scratch next time
+            chunk.release();
+        }
+    }
+}
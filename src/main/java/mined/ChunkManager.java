@@ -1,50 +1,120 @@
 package mined;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
+import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import com.jme3.material.Material;
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
 import com.jme3.scene.Node;
 
 public class ChunkManager {
-    private static final int CHUNK_SIZE = 16;
-    private static final int CHUNK_HEIGHT = 256;
+    public static final int CHUNK_SIZE = 16;
+    public static final int CHUNK_HEIGHT = 256;
     private static final int SPAWN_CHUNK_RADIUS = 8;
     private static final long WORLD_SEED;
     private static final boolean DEBUG = true;
+    private static final MeshingMode MESHING_MODE = MeshingMode.GREEDY;
+    private static final int MESH_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final int GENERATION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    // Dirty sections rebuilt on the render thread per frame, the rest go to the mesh workers
+    private static final int SYNC_REMESH_SECTIONS = 4;
+    private static final float DEFAULT_FRAME_BUDGET_MS = 4f;
+    // Generation tasks handed to the workers at once, the rest wait in the load queue
+    private static final int MAX_PENDING_GENERATIONS = GENERATION_THREADS * 2;
+    // Chunks this close (in chunks) load first whichever way the camera faces
+    private static final float NEAR_CHUNKS = 1.5f;
+    // Priority multiplier for a chunk directly behind the camera, 1 inside the view
+    private static final float BEHIND_WEIGHT = 4f;
+    // Re-sort the load queue once the view turned by more than this (cosine of ~30 degrees)
+    private static final float RESORT_COS = 0.866f;
+    private static final float CHUNK_RADIUS = CHUNK_SIZE * 0.7072f;
+    private static final int MAX_POOLED_MESHES = 512;
+    private static final long DEFAULT_CACHE_BYTES = 32L * 1024 * 1024;
+    // Last ring (Chebyshev distance in chunks) of each LOD level, full detail first.
+    // Chunks beyond the last ring use the next level.
+    private static final int[] DEFAULT_LOD_RINGS = {4, 8, 12};
+    private static final Direction[] HORIZONTAL_DIRECTIONS = {
+        Direction.NORTH, Direction.SOUTH, Direction.EAST, Direction.WEST
+    };
     
     private final Main app;
     private final Node worldNode;
     private final int renderDistance;
-    private final Material dirtMaterial, grassMaterial, stoneMaterial;
-    private final Map<String, Chunk> loadedChunks;
-    private final Set<String> spawnChunks;
+    // Keyed by packed chunk coordinates, see getChunkKey
+    private final LongObjectMap<Chunk> loadedChunks;
+    private final LongObjectMap<Boolean> spawnChunks;
     private final NoiseGenerator terrainNoise;
     private final BiomeGenerator biomeGenerator;
-    private final Set<String> generatingChunks = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
-    private int lastPlayerChunkX = Integer.MAX_VALUE;
-    private int lastPlayerChunkZ = Integer.MAX_VALUE;
+    private final LongObjectMap<Boolean> generatingChunks = new LongObjectMap<>();
+    private final ExecutorService meshExecutor;
+    private final ExecutorService generationExecutor;
+    private final AtomicLong taskSequence = new AtomicLong();
+    private final Set<Chunk> dirtyChunks = Collections.newSetFromMap(new ConcurrentHashMap<Chunk, Boolean>());
+    private volatile int lastPlayerChunkX = Integer.MAX_VALUE;
+    private volatile int lastPlayerChunkZ = Integer.MAX_VALUE;
+    // Camera as of the last updateChunks, read by the workers to order their tasks
+    private volatile ViewState view = new ViewState(0f, 0f, 0f, 0f, FastMath.PI);
+    // View direction the load queue was last sorted for
+    private float queueDirX, queueDirZ;
+    // Chunk offsets around the player, ring by ring outward
+    private final int[] spiralOffsets;
+    // Packed chunk keys waiting to be generated, render thread only
+    private long[] loadQueue = new long[0];
+    private int loadQueueHead;
+    private int loadQueueSize;
+    // Finished meshes and chunk attachments waiting for the render thread
+    private final Queue<Runnable> uploadQueue = new ConcurrentLinkedQueue<>();
+    private final MeshPool meshPool;
+    // Unloaded chunks kept for a quick return, render thread only
+    private final ChunkCache chunkCache = new ChunkCache(DEFAULT_CACHE_BYTES);
+    private long frameBudgetNanos = (long) (DEFAULT_FRAME_BUDGET_MS * 1_000_000L);
+    private volatile int[] lodRings = DEFAULT_LOD_RINGS;
     
     static {
         WORLD_SEED = new Random().nextLong();
     }
 
-    public ChunkManager(Main app, Node worldNode, int renderDistance,
-                       Material dirtMaterial, Material grassMaterial, Material stoneMaterial) {
+    public ChunkManager(Main app, Node worldNode, int renderDistance) {
         this.app = app;
         this.worldNode = worldNode;
         this.renderDistance = renderDistance;
-        this.dirtMaterial = dirtMaterial;
-        this.grassMaterial = grassMaterial;
-        this.stoneMaterial = stoneMaterial;
-        this.loadedChunks = new ConcurrentHashMap<>();
-        this.spawnChunks = new HashSet<>();
+        this.loadedChunks = new LongObjectMap<>();
+        this.spawnChunks = new LongObjectMap<>();
+        this.spiralOffsets = createSpiral(renderDistance);
+        this.meshPool = new MeshPool(app != null ? app.getRenderer() : null, MAX_POOLED_MESHES);
         this.terrainNoise = new NoiseGenerator(WORLD_SEED);
         this.biomeGenerator = new BiomeGenerator(WORLD_SEED);
+        // Priority queues so the chunks the player is most likely to see are handled first
+        this.meshExecutor = new ThreadPoolExecutor(
+            MESH_THREADS, MESH_THREADS, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<Runnable>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ChunkMesher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.generationExecutor = new ThreadPoolExecutor(
+            GENERATION_THREADS, GENERATION_THREADS, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<Runnable>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ChunkGenerator");
+                thread.setDaemon(true);
+                return thread;
+            });
     }
 
     public void generateSpawnChunks() {
@@ -57,9 +127,8 @@ public class ChunkManager {
             for (int x = -layer; x <= layer; x++) {
                 for (int z = -layer; z <= layer; z++) {
                     if (Math.abs(x) == layer || Math.abs(z) == layer) {
-                        String chunkKey = getChunkKey(x, z);
                         generateChunk(x, z);
-                        spawnChunks.add(chunkKey);
+                        spawnChunks.put(getChunkKey(x, z), Boolean.TRUE);
                         System.out.printf("Generated spawn chunk at %d, %d%n", x, z);
                     }
                 }
@@ -68,35 +137,215 @@ public class ChunkManager {
         System.out.println("Spawn chunks generation complete!");
     }
 
+    // Generates a chunk synchronously on the calling thread (used for spawn)
     public void generateChunk(int chunkX, int chunkZ) {
-        String chunkKey = getChunkKey(chunkX, chunkZ);
+        long chunkKey = getChunkKey(chunkX, chunkZ);
         
         // Check if chunk is already loaded or being generated
-        if (loadedChunks.containsKey(chunkKey) || generatingChunks.contains(chunkKey)) {
+        if (loadedChunks.containsKey(chunkKey) || generatingChunks.containsKey(chunkKey)
+                || restoreChunk(chunkKey)) {
+            return;
+        }
+        if (generatingChunks.putIfAbsent(chunkKey, Boolean.TRUE) != null) {
             return;
         }
-
-        generatingChunks.add(chunkKey);
         
         try {
-            Chunk chunk = new Chunk(
-                chunkX * CHUNK_SIZE,
-                chunkZ * CHUNK_SIZE,
-                CHUNK_SIZE,
-                CHUNK_HEIGHT,
-                dirtMaterial,
-                grassMaterial,
-                stoneMaterial
-            );
-            
-            generateTerrainForChunk(chunk, chunkX, chunkZ);
+            Chunk chunk = createChunk(chunkX, chunkZ);
             worldNode.attachChild(chunk.getNode());
-            loadedChunks.put(chunkKey, chunk);
+            publishChunk(chunkKey, chunk);
         } finally {
             generatingChunks.remove(chunkKey);
         }
     }
 
+    // Queues a chunk for generation on the worker pool, see getPriority for the order.
+    // A recently unloaded chunk is taken from the cache instead. Render thread only.
+    // Returns true only when a new generation task was submitted.
+    public boolean generateChunkAsync(int chunkX, int chunkZ) {
+        long chunkKey = getChunkKey(chunkX, chunkZ);
+        if (loadedChunks.containsKey(chunkKey) || generatingChunks.containsKey(chunkKey)
+                || restoreChunk(chunkKey)) {
+            return false;
+        }
+        if (generatingChunks.putIfAbsent(chunkKey, Boolean.TRUE) != null) {
+            return false;
+        }
+
+        generationExecutor.execute(new GenerationTask(chunkX, chunkZ, getPriority(chunkX, chunkZ)));
+        return true;
+    }
+
+    private Chunk createChunk(int chunkX, int chunkZ) {
+        Chunk chunk = new Chunk(
+            this,
+            chunkX * CHUNK_SIZE,
+            chunkZ * CHUNK_SIZE,
+            CHUNK_SIZE,
+            CHUNK_HEIGHT
+        );
+        chunk.setMeshingMode(MESHING_MODE);
+        generateTerrainForChunk(chunk, chunkX, chunkZ);
+        chunk.compactSections();
+        return chunk;
+    }
+
+    // Publishes a cached chunk again, returns false on a cache miss. Render thread only.
+    private boolean restoreChunk(long chunkKey) {
+        Chunk chunk = chunkCache.take(chunkKey);
+        if (chunk == null) {
+            return false;
+        }
+        // Mesh results from before the unload may have missed neighbor changes
+        chunk.invalidateSections();
+        worldNode.attachChild(chunk.getNode());
+        publishChunk(chunkKey, chunk);
+        return true;
+    }
+
+    // Makes a fully generated chunk visible to lookups and schedules its mesh
+    private void publishChunk(long chunkKey, Chunk chunk) {
+        chunk.setLod(getLod(chunk.getChunkX(), chunk.getChunkZ()));
+        chunk.setLive(true);
+        loadedChunks.put(chunkKey, chunk);
+        requestMeshUpdate(chunk);
+        updateNeighborMeshes(chunk.getChunkX(), chunk.getChunkZ());
+    }
+
+    private boolean isInLoadWindow(int chunkX, int chunkZ) {
+        return Math.abs(chunkX - lastPlayerChunkX) <= renderDistance + 1
+            && Math.abs(chunkZ - lastPlayerChunkZ) <= renderDistance + 1;
+    }
+
+    private class GenerationTask implements Runnable, Comparable<GenerationTask> {
+        private final int chunkX, chunkZ;
+        private final float priority;
+        private final long sequence = taskSequence.getAndIncrement();
+
+        GenerationTask(int chunkX, int chunkZ, float priority) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.priority = priority;
+        }
+
+        @Override
+        public void run() {
+            long chunkKey = getChunkKey(chunkX, chunkZ);
+            try {
+                // The player may have moved on while this was queued
+                if (!isInLoadWindow(chunkX, chunkZ)) {
+                    return;
+                }
+
+                final Chunk chunk = createChunk(chunkX, chunkZ);
+                publishChunk(chunkKey, chunk);
+                uploadQueue.add(() -> {
+                    if (getChunk(chunkX, chunkZ) == chunk) {
+                        worldNode.attachChild(chunk.getNode());
+                    }
+                });
+            } catch (RuntimeException e) {
+                System.err.println("Error generating chunk " + chunkX + ", " + chunkZ + ": " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                generatingChunks.remove(chunkKey);
+            }
+        }
+
+        @Override
+        public int compareTo(GenerationTask other) {
+            if (priority != other.priority) {
+                return Float.compare(priority, other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private class MeshTask implements Runnable, Comparable<MeshTask> {
+        private final Chunk chunk;
+        private final int sectionMask;
+        private final float priority;
+        private final long sequence = taskSequence.getAndIncrement();
+
+        MeshTask(Chunk chunk, int sectionMask) {
+            this.chunk = chunk;
+            this.sectionMask = sectionMask;
+            this.priority = getPriority(chunk.getChunkX(), chunk.getChunkZ());
+        }
+
+        @Override
+        public void run() {
+            // Unloaded while queued, the result would be thrown away
+            if (!chunk.isLive()) {
+                return;
+            }
+            if (DEBUG) System.out.println("Updating mesh for chunk: " + chunk.getChunkX() + ", " + chunk.getChunkZ());
+            // The mesher reads under the chunk locks, so edits made meanwhile cannot break it
+            ChunkMeshData data = chunk.buildMeshData(sectionMask);
+            uploadQueue.add(() -> {
+                // Sections edited meanwhile are skipped by applyMeshData
+                if (getChunk(chunk.getChunkX(), chunk.getChunkZ()) == chunk) {
+                    chunk.applyMeshData(data);
+                }
+            });
+        }
+
+        @Override
+        public int compareTo(MeshTask other) {
+            if (priority != other.priority) {
+                return Float.compare(priority, other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // Camera position and horizontal view direction, immutable so workers can read it safely
+    private static final class ViewState {
+        final float x, z;
+        // Unit vector, or zero when there is no direction (looking straight down, or no camera)
+        final float dirX, dirZ;
+        final float halfFov;
+
+        ViewState(float x, float z, float dirX, float dirZ, float halfFov) {
+            this.x = x;
+            this.z = z;
+            this.dirX = dirX;
+            this.dirZ = dirZ;
+            this.halfFov = halfFov;
+        }
+    }
+
+    // Lower runs first. Distance in chunks, scaled up the further the chunk lies outside the
+    // horizontal view cone, so visible terrain comes before terrain behind the camera.
+    private float getPriority(int chunkX, int chunkZ) {
+        ViewState view = this.view;
+        float dx = (chunkX + 0.5f) * CHUNK_SIZE - view.x;
+        float dz = (chunkZ + 0.5f) * CHUNK_SIZE - view.z;
+        float distance = FastMath.sqrt(dx * dx + dz * dz);
+        float chunks = distance / CHUNK_SIZE;
+        if (chunks < NEAR_CHUNKS || (view.dirX == 0f && view.dirZ == 0f)) {
+            return chunks;
+        }
+
+        float cos = FastMath.clamp((dx * view.dirX + dz * view.dirZ) / distance, -1f, 1f);
+        float angle = FastMath.acos(cos);
+        // The chunk is in view if any part of it is inside the cone, not only its center
+        float outside = angle - FastMath.atan(CHUNK_RADIUS / distance) - view.halfFov;
+        if (outside <= 0f) {
+            return chunks;
+        }
+        return chunks * (1f + (BEHIND_WEIGHT - 1f) * outside / (FastMath.PI - view.halfFov));
+    }
+
+    // Terrain surface of a column: blocks fill y < height. Depends only on the world seed,
+    // so it is safe to call from any thread and without a chunk (see FarTerrain).
+    public int getTerrainHeight(int worldX, int worldZ) {
+        // Simplified height generation for testing
+        int baseHeight = 64; // Start with a fixed base height
+        double noiseValue = terrainNoise.noise(worldX * 0.05, worldZ * 0.05);
+        return baseHeight + (int)(noiseValue * 10);
+    }
+
     private void generateTerrainForChunk(Chunk chunk, int chunkX, int chunkZ) {
         if (DEBUG) System.out.println("Generating terrain for chunk: " + chunkX + ", " + chunkZ);
         
@@ -105,10 +354,7 @@ public class ChunkManager {
                 int worldX = chunkX * CHUNK_SIZE + x;
                 int worldZ = chunkZ * CHUNK_SIZE + z;
                 
-                // Simplified height generation for testing
-                int baseHeight = 64; // Start with a fixed base height
-                double noiseValue = terrainNoise.noise(worldX * 0.05, worldZ * 0.05);
-                int finalHeight = baseHeight + (int)(noiseValue * 10);
+                int finalHeight = getTerrainHeight(worldX, worldZ);
                 
                 if (DEBUG && x == 0 && z == 0) {
                     System.out.printf("Generating column at (%d,%d) with height %d%n",
@@ -132,8 +378,6 @@ public class ChunkManager {
             }
         }
         
-        if (DEBUG) System.out.println("Updating mesh for chunk: " + chunkX + ", " + chunkZ);
-        chunk.updateMesh();
     }
 
     private void generateColumn(Chunk chunk, int x, int z, int height, Biome biome) {
@@ -167,9 +411,45 @@ public class ChunkManager {
         // Implement feature generation (trees, plants, etc.) based on biome
     }
 
+    // Streams chunks around the camera, the ones in view first
+    public void updateChunks(Camera cam) {
+        Vector3f location = cam.getLocation();
+        Vector3f direction = cam.getDirection();
+        float dirX = direction.x;
+        float dirZ = direction.z;
+        float length = FastMath.sqrt(dirX * dirX + dirZ * dirZ);
+        if (length < 0.1f) {
+            // Looking almost straight down or up, every direction is equally visible
+            dirX = 0f;
+            dirZ = 0f;
+        } else {
+            dirX /= length;
+            dirZ /= length;
+        }
+        float halfFov = FastMath.atan(cam.getFrustumRight() / cam.getFrustumNear());
+        view = new ViewState(location.x, location.z, dirX, dirZ, halfFov);
+
+        int playerChunkX = Math.floorDiv((int) FastMath.floor(location.x), CHUNK_SIZE);
+        int playerChunkZ = Math.floorDiv((int) FastMath.floor(location.z), CHUNK_SIZE);
+        streamChunks(playerChunkX, playerChunkZ);
+    }
+
+    // Distance-only streaming, for callers without a camera
     public void updateChunks(int playerChunkX, int playerChunkZ) {
-        // Only update if player has moved to a different chunk
+        view = new ViewState((playerChunkX + 0.5f) * CHUNK_SIZE, (playerChunkZ + 0.5f) * CHUNK_SIZE,
+            0f, 0f, FastMath.PI);
+        streamChunks(playerChunkX, playerChunkZ);
+    }
+
+    private void streamChunks(int playerChunkX, int playerChunkZ) {
         if (playerChunkX == lastPlayerChunkX && playerChunkZ == lastPlayerChunkZ) {
+            // Same chunk, only re-sort the waiting chunks if the player turned around
+            ViewState view = this.view;
+            boolean turned = (view.dirX != queueDirX || view.dirZ != queueDirZ)
+                && view.dirX * queueDirX + view.dirZ * queueDirZ < RESORT_COS;
+            if (turned) {
+                rebuildLoadQueue(playerChunkX, playerChunkZ);
+            }
             return;
         }
 
@@ -177,46 +457,318 @@ public class ChunkManager {
         lastPlayerChunkZ = playerChunkZ;
 
         int renderDistance = this.renderDistance;
+        rebuildLoadQueue(playerChunkX, playerChunkZ);
         
-        // Generate new chunks
-        for (int x = -renderDistance; x <= renderDistance; x++) {
-            for (int z = -renderDistance; z <= renderDistance; z++) {
-                int chunkX = playerChunkX + x;
-                int chunkZ = playerChunkZ + z;
-                generateChunk(chunkX, chunkZ);
+        // Remove chunks outside render distance
+        List<Chunk> chunksToRemove = new ArrayList<>();
+        loadedChunks.forEachValue(chunk -> {
+            if (Math.abs(chunk.getChunkX() - playerChunkX) > renderDistance + 1 ||
+                Math.abs(chunk.getChunkZ() - playerChunkZ) > renderDistance + 1) {
+                chunksToRemove.add(chunk);
             }
-        }
+        });
         
-        // Remove chunks outside render distance
-        Set<String> chunksToRemove = new HashSet<>();
-        for (String key : loadedChunks.keySet()) {
-            String[] coords = key.split(",");
-            int chunkX = Integer.parseInt(coords[0]);
-            int chunkZ = Integer.parseInt(coords[1]);
-            
-            if (Math.abs(chunkX - playerChunkX) > renderDistance + 1 ||
-                Math.abs(chunkZ - playerChunkZ) > renderDistance + 1) {
-                chunksToRemove.add(key);
+        List<Chunk> unloaded = new ArrayList<>();
+        for (Chunk chunk : chunksToRemove) {
+            if (unloadChunk(chunk)) {
+                unloaded.add(chunk);
             }
         }
-        
-        for (String key : chunksToRemove) {
-            unloadChunk(key);
+
+        // Re-expose border faces once all the chunks leaving the window are gone
+        Set<Chunk> neighborsToUpdate = new HashSet<>();
+        for (Chunk chunk : unloaded) {
+            collectNeighbors(chunk.getChunkX(), chunk.getChunkZ(), neighborsToUpdate);
+        }
+        updateLods(neighborsToUpdate);
+        for (Chunk neighbor : neighborsToUpdate) {
+            neighbor.invalidateSections();
+            requestMeshUpdate(neighbor);
+        }
+    }
+
+    // Moves loaded chunks to the LOD of their ring. Changed chunks and their neighbors, whose
+    // seam skirts depend on it, are added to remesh.
+    private void updateLods(Set<Chunk> remesh) {
+        List<Chunk> changed = new ArrayList<>();
+        loadedChunks.forEachValue(chunk -> {
+            int lod = getLod(chunk.getChunkX(), chunk.getChunkZ());
+            if (lod != chunk.getLod()) {
+                chunk.setLod(lod);
+                changed.add(chunk);
+            }
+        });
+        for (Chunk chunk : changed) {
+            remesh.add(chunk);
+            collectNeighbors(chunk.getChunkX(), chunk.getChunkZ(), remesh);
+        }
+    }
+
+    private int getLod(int chunkX, int chunkZ) {
+        if (lastPlayerChunkX == Integer.MAX_VALUE) {
+            // Nothing streamed yet (spawn), keep full detail
+            return 0;
+        }
+        int distance = Math.max(Math.abs(chunkX - lastPlayerChunkX), Math.abs(chunkZ - lastPlayerChunkZ));
+        int[] rings = lodRings;
+        for (int lod = 0; lod < rings.length; lod++) {
+            if (distance <= rings[lod]) {
+                return lod;
+            }
         }
+        return rings.length;
     }
 
-    private void unloadChunk(String chunkKey) {
-        Chunk chunk = loadedChunks.remove(chunkKey);
-        if (chunk != null) {
-            chunk.getNode().removeFromParent();
+    // Sets where each LOD level ends, in chunks from the player and in increasing order.
+    // At most Chunk.MAX_LOD rings; no rings means full detail everywhere. Render thread only.
+    public void setLodRings(int... rings) {
+        if (rings.length > Chunk.MAX_LOD) {
+            throw new IllegalArgumentException("At most " + Chunk.MAX_LOD + " LOD rings, got " + rings.length);
         }
+        for (int i = 1; i < rings.length; i++) {
+            if (rings[i] <= rings[i - 1]) {
+                throw new IllegalArgumentException("LOD rings must increase: " + Arrays.toString(rings));
+            }
+        }
+        lodRings = rings.clone();
+
+        Set<Chunk> remesh = new HashSet<>();
+        updateLods(remesh);
+        for (Chunk chunk : remesh) {
+            chunk.invalidateSections();
+            requestMeshUpdate(chunk);
+        }
+    }
+
+    // Fills the load queue with the missing chunks of the window, ordered by getPriority.
+    // Entries from an old position that are no longer missing or in range are dropped with it.
+    private void rebuildLoadQueue(int playerChunkX, int playerChunkZ) {
+        int count = spiralOffsets.length / 2;
+        if (loadQueue.length < count) {
+            loadQueue = new long[count];
+        }
+        // Priority bits above the spiral index, so equal priorities keep the spiral order
+        long[] order = new long[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int chunkX = playerChunkX + spiralOffsets[i * 2];
+            int chunkZ = playerChunkZ + spiralOffsets[i * 2 + 1];
+            if (!loadedChunks.containsKey(getChunkKey(chunkX, chunkZ))) {
+                // Priorities are never negative, so their float bits sort like the values
+                order[size++] = ((long) Float.floatToIntBits(getPriority(chunkX, chunkZ)) << 32) | i;
+            }
+        }
+        Arrays.sort(order, 0, size);
+
+        for (int n = 0; n < size; n++) {
+            int i = (int) order[n];
+            loadQueue[n] = getChunkKey(playerChunkX + spiralOffsets[i * 2], playerChunkZ + spiralOffsets[i * 2 + 1]);
+        }
+        loadQueueHead = 0;
+        loadQueueSize = size;
+        queueDirX = view.dirX;
+        queueDirZ = view.dirZ;
+    }
+
+    // Moves a chunk from the loaded set into the cache, its block data is kept until evicted
+    private boolean unloadChunk(Chunk chunk) {
+        long chunkKey = getChunkKey(chunk.getChunkX(), chunk.getChunkZ());
+        if (loadedChunks.remove(chunkKey) == null) {
+            return false;
+        }
+        chunk.setLive(false);
+        dirtyChunks.remove(chunk);
+        chunk.releaseMeshes();
+        chunkCache.put(chunkKey, chunk);
+        return true;
+    }
+
+    // Re-evaluates the border faces of the chunks around one that was just loaded
+    private void updateNeighborMeshes(int chunkX, int chunkZ) {
+        Set<Chunk> neighbors = new HashSet<>();
+        collectNeighbors(chunkX, chunkZ, neighbors);
+        for (Chunk neighbor : neighbors) {
+            neighbor.invalidateSections();
+            requestMeshUpdate(neighbor);
+        }
+    }
+
+    public void requestMeshUpdate(Chunk chunk) {
+        requestMeshUpdate(chunk, chunk.getAllSectionsMask());
+    }
+
+    // Builds the mesh data on a worker and only hands Geometry creation to the render thread
+    public void requestMeshUpdate(Chunk chunk, int sectionMask) {
+        meshExecutor.execute(new MeshTask(chunk, sectionMask));
+    }
+
+    public void markChunkDirty(Chunk chunk) {
+        dirtyChunks.add(chunk);
+    }
+
+    // Per-frame pass: rebuilds the sections touched by block edits, then spends what is left of
+    // the frame budget on finished meshes and on feeding the load queue to the workers
+    public void update() {
+        long deadline = System.nanoTime() + frameBudgetNanos;
+        remeshDirtySections(SYNC_REMESH_SECTIONS);
+        processUploads(deadline);
+        processLoadQueue(deadline);
+    }
+
+    public void setFrameBudget(float millis) {
+        frameBudgetNanos = (long) (millis * 1_000_000L);
+    }
+
+    // Applies at least one finished upload per frame so loading always makes progress
+    private void processUploads(long deadline) {
+        Runnable upload;
+        do {
+            upload = uploadQueue.poll();
+            if (upload == null) {
+                return;
+            }
+            upload.run();
+        } while (System.nanoTime() < deadline);
+    }
+
+    private void processLoadQueue(long deadline) {
+        int pending = generatingChunks.size();
+        while (loadQueueHead < loadQueueSize && pending < MAX_PENDING_GENERATIONS
+                && System.nanoTime() < deadline) {
+            long chunkKey = loadQueue[loadQueueHead++];
+            int chunkX = (int) (chunkKey >> 32);
+            int chunkZ = (int) chunkKey;
+            // Left the window before its turn came
+            if (!isInLoadWindow(chunkX, chunkZ) || loadedChunks.containsKey(chunkKey)) {
+                continue;
+            }
+            // Cache hits and chunks already generating take no worker slot
+            if (generateChunkAsync(chunkX, chunkZ)) {
+                pending++;
+            }
+        }
+    }
+
+    // Offsets (dx, dz) of the square around the origin, walked ring by ring starting at the center
+    private static int[] createSpiral(int radius) {
+        int side = radius * 2 + 1;
+        int[] offsets = new int[side * side * 2];
+        int n = 0;
+        offsets[n++] = 0;
+        offsets[n++] = 0;
+        for (int r = 1; r <= radius; r++) {
+            // Start on the middle of each edge, the closest cells of the ring, and walk both ways
+            for (int step = 0; step <= r; step++) {
+                for (int sign = step == 0 ? 1 : -1; sign <= 1; sign += 2) {
+                    int t = step * sign;
+                    offsets[n++] = r;  offsets[n++] = t;
+                    offsets[n++] = -r; offsets[n++] = -t;
+                    if (step != r) {
+                        offsets[n++] = t;  offsets[n++] = -r;
+                        offsets[n++] = -t; offsets[n++] = r;
+                    }
+                }
+            }
+        }
+        return offsets;
+    }
+
+    // Rebuilds all dirty sections right away instead of at the next update(), on the mesh
+    // workers in parallel when async is set. Used to commit large batches of edits.
+    public void remeshDirtyChunks(boolean async) {
+        remeshDirtySections(async ? 0 : Integer.MAX_VALUE);
     }
 
-    private String getChunkKey(int chunkX, int chunkZ) {
-        return chunkX + "," + chunkZ;
+    // Rebuilds up to syncLimit sections in total on the calling thread, chunk by chunk, and
+    // hands every chunk that no longer fits to the mesh workers
+    private void remeshDirtySections(int syncLimit) {
+        if (dirtyChunks.isEmpty()) {
+            return;
+        }
+
+        for (Chunk chunk : dirtyChunks) {
+            dirtyChunks.remove(chunk);
+            int sectionMask = chunk.takeDirtySections();
+            if (sectionMask == 0 || getChunk(chunk.getChunkX(), chunk.getChunkZ()) != chunk) {
+                continue;
+            }
+
+            // A few sections are cheap enough to rebuild in place, larger batches go to the workers
+            int sections = Integer.bitCount(sectionMask);
+            if (sections <= syncLimit) {
+                syncLimit -= sections;
+                chunk.applyMeshData(chunk.buildMeshData(sectionMask));
+            } else {
+                requestMeshUpdate(chunk, sectionMask);
+            }
+        }
+    }
+
+    public void shutdown() {
+        generationExecutor.shutdownNow();
+        meshExecutor.shutdownNow();
+    }
+
+    private void collectNeighbors(int chunkX, int chunkZ, Set<Chunk> neighbors) {
+        for (Direction dir : HORIZONTAL_DIRECTIONS) {
+            Chunk neighbor = getChunk(chunkX + (int) dir.getNormal().x, chunkZ + (int) dir.getNormal().z);
+            if (neighbor != null) {
+                neighbors.add(neighbor);
+            }
+        }
+    }
+
+    // Chunk x in the high 32 bits, z in the low 32 bits
+    private static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    // Byte budget for the block data of unloaded chunks kept for a quick return
+    public void setCacheBudget(long bytes) {
+        chunkCache.setBudget(bytes);
+    }
+
+    public ChunkCache getChunkCache() {
+        return chunkCache;
+    }
+
+    // Render thread only
+    public MeshPool getMeshPool() {
+        return meshPool;
     }
 
     public Chunk getChunk(int chunkX, int chunkZ) {
         return loadedChunks.get(getChunkKey(chunkX, chunkZ));
     }
+
+    // True once the chunk is loaded and its first mesh is attached. Render thread only.
+    public boolean isChunkMeshed(int chunkX, int chunkZ) {
+        Chunk chunk = getChunk(chunkX, chunkZ);
+        return chunk != null && chunk.isMeshed();
+    }
+
+    // Writes a block at world coordinates. The edited sections and any neighbors sharing a face
+    // are remeshed by the next update() pass. Returns false where no chunk is loaded or nothing changed.
+    public boolean setBlockAt(int x, int y, int z, BlockType type) {
+        if (y < 0 || y >= CHUNK_HEIGHT) {
+            return false;
+        }
+        Chunk chunk = getChunk(Math.floorDiv(x, CHUNK_SIZE), Math.floorDiv(z, CHUNK_SIZE));
+        if (chunk == null) {
+            return false;
+        }
+        return chunk.setBlock(Math.floorMod(x, CHUNK_SIZE), y, Math.floorMod(z, CHUNK_SIZE), type);
+    }
+
+    // Block at world coordinates, AIR outside the world or where no chunk is loaded
+    public BlockType getBlockAt(int x, int y, int z) {
+        if (y < 0 || y >= CHUNK_HEIGHT) {
+            return BlockType.AIR;
+        }
+        Chunk chunk = getChunk(Math.floorDiv(x, CHUNK_SIZE), Math.floorDiv(z, CHUNK_SIZE));
+        if (chunk == null) {
+            return BlockType.AIR;
+        }
+        return chunk.getBlock(Math.floorMod(x, CHUNK_SIZE), y, Math.floorMod(z, CHUNK_SIZE));
+    }
 }
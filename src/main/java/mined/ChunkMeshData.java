@@ -0,0 +1,28 @@
+package mined;
+
+// Immutable mesh payload for some sections of a chunk, one atlas mesh per section
+public final class ChunkMeshData {
+    private final int sectionMask;
+    private final int[] stamps;
+    private final MeshData[] meshes;
+
+    public ChunkMeshData(int sectionMask, int[] stamps, MeshData[] meshes) {
+        this.sectionMask = sectionMask;
+        this.stamps = stamps;
+        this.meshes = meshes;
+    }
+
+    public boolean hasSection(int sectionY) {
+        return (sectionMask & (1 << sectionY)) != 0;
+    }
+
+    // Section stamp observed when this data was built
+    public int getStamp(int sectionY) {
+        return stamps[sectionY];
+    }
+
+    // Null when the section has no visible faces
+    public MeshData getMesh(int sectionY) {
+        return meshes[sectionY];
+    }
+}
@@ -0,0 +1,365 @@
+package mined;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+
+public class ChunkMesher {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final BlockType[] TYPES = BlockType.values();
+    private static final byte AIR = (byte) BlockType.AIR.ordinal();
+    // Stands in for the ground below the world in downsampled meshes, nobody sees their underside
+    private static final byte BELOW_WORLD = (byte) BlockType.BEDROCK.ordinal();
+
+    // Per-direction face layout, indexed by Direction.ordinal(). Axis 0 = x, 1 = y, 2 = z.
+    // U and V are picked so that U x V points along the face normal (counter-clockwise winding).
+    private static final int[] NORMAL_AXIS = new int[DIRECTIONS.length];
+    private static final int[] NORMAL_STEP = new int[DIRECTIONS.length];
+    private static final int[] U_AXIS = new int[DIRECTIONS.length];
+    private static final int[] V_AXIS = new int[DIRECTIONS.length];
+
+    static {
+        setFaceLayout(Direction.NORTH, 2, 1, 0, 1);
+        setFaceLayout(Direction.SOUTH, 2, -1, 1, 0);
+        setFaceLayout(Direction.EAST, 0, 1, 1, 2);
+        setFaceLayout(Direction.WEST, 0, -1, 2, 1);
+        setFaceLayout(Direction.UP, 1, 1, 2, 0);
+        setFaceLayout(Direction.DOWN, 1, -1, 0, 2);
+    }
+
+    private final int[] pos = new int[3];
+    private final int[] dims = new int[3];
+    private final int[] neighborOffset = new int[DIRECTIONS.length];
+    private final float[] origin = new float[3];
+    private final float[] du = new float[3];
+    private final float[] dv = new float[3];
+    private final MeshBuilder builder = new MeshBuilder();
+    // Face mask of the current slice, BlockType ordinal + 1 per cell or 0 for no face
+    private int[] mask = new int[0];
+    // BlockType ordinals of the section being meshed plus a one block border from around it
+    private byte[] padded = new byte[0];
+    private int paddedSize;
+    // Blocks per cell edge of the section being meshed, 1 at full detail
+    private int scale = 1;
+    private int lod;
+    // Fill state of the meshed section and the ones above and below, read under the chunk lock
+    private boolean sectionFull;
+    private boolean fullBelow;
+    private boolean fullAbove;
+
+    private static void setFaceLayout(Direction dir, int normalAxis, int step, int uAxis, int vAxis) {
+        NORMAL_AXIS[dir.ordinal()] = normalAxis;
+        NORMAL_STEP[dir.ordinal()] = step;
+        U_AXIS[dir.ordinal()] = uAxis;
+        V_AXIS[dir.ordinal()] = vAxis;
+    }
+
+    public MeshBuilder getBuilder() {
+        return builder;
+    }
+
+    // Meshes one 16-high section into the builder, replacing its previous contents.
+    // Above LOD 0 the section is downsampled to cells of 2^lod blocks and always meshed greedily.
+    public void meshSection(Chunk chunk, int sectionY, MeshingMode mode, int lod) {
+        builder.reset();
+        this.lod = lod;
+        scale = 1 << lod;
+
+        // Copy the section into the padded array while holding the chunk's read lock, so an
+        // edit on the render thread can never resize storage under us. Meshing then only
+        // touches the copy.
+        Lock lock = chunk.getReadLock();
+        lock.lock();
+        try {
+            if (chunk.isSectionEmpty(sectionY)) {
+                return;
+            }
+            int sectionCount = chunk.getSectionCount();
+            sectionFull = chunk.isSectionFull(sectionY);
+            fullBelow = sectionY > 0 && chunk.isSectionFull(sectionY - 1);
+            fullAbove = sectionY < sectionCount - 1 && chunk.isSectionFull(sectionY + 1);
+        } finally {
+            lock.unlock();
+        }
+        // A full section walled in by full sections on all six sides has no visible face
+        if (sectionFull && fullBelow && fullAbove && isEnclosed(chunk, sectionY)) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            fillPadded(chunk, sectionY);
+        } finally {
+            lock.unlock();
+        }
+
+        // Border faces are culled against whichever neighbors are loaded right now. A neighbor
+        // at another LOD reads as AIR, so the border faces form a skirt that covers the seam.
+        // Each neighbor is locked on its own, a worker never holds two chunk locks at once.
+        int size = chunk.getSize() / scale;
+        fillBorder(chunk, Direction.WEST, sectionY, 0, 1, size - 1, 0);
+        fillBorder(chunk, Direction.EAST, sectionY, size + 1, 1, 0, 0);
+        fillBorder(chunk, Direction.SOUTH, sectionY, 1, 0, 0, size - 1);
+        fillBorder(chunk, Direction.NORTH, sectionY, 1, size + 1, 0, 0);
+
+        if (mode == MeshingMode.GREEDY || lod > 0) {
+            meshSectionGreedy(chunk, sectionY);
+        } else {
+            meshSectionPerFace(chunk, sectionY);
+        }
+    }
+
+    private boolean isEnclosed(Chunk chunk, int sectionY) {
+        for (Direction dir : DIRECTIONS) {
+            if (dir == Direction.UP || dir == Direction.DOWN) {
+                continue;
+            }
+            // A neighbor at another LOD reads as AIR, see fillBorder
+            Chunk neighbor = chunk.getNeighbor(dir);
+            if (neighbor == null || neighbor.getLod() != lod) {
+                return false;
+            }
+            Lock lock = neighbor.getReadLock();
+            lock.lock();
+            try {
+                if (!neighbor.isSectionFull(sectionY)) {
+                    return false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    // Fills the padded array with the section itself, leaving the four side borders as AIR
+    private void fillPadded(Chunk chunk, int sectionY) {
+        int size = chunk.getSize() / scale;
+        int cellsY = Chunk.SECTION_HEIGHT / scale;
+        paddedSize = size + 2;
+        int volume = paddedSize * paddedSize * (cellsY + 2);
+        if (padded.length < volume) {
+            padded = new byte[volume];
+        }
+        Arrays.fill(padded, 0, volume, AIR);
+
+        for (Direction dir : DIRECTIONS) {
+            int step = NORMAL_STEP[dir.ordinal()];
+            switch (NORMAL_AXIS[dir.ordinal()]) {
+                case 0: neighborOffset[dir.ordinal()] = step; break;
+                case 1: neighborOffset[dir.ordinal()] = step * paddedSize * paddedSize; break;
+                default: neighborOffset[dir.ordinal()] = step * paddedSize; break;
+            }
+        }
+
+        if (sectionY == 0 && lod > 0) {
+            Arrays.fill(padded, 0, paddedSize * paddedSize, BELOW_WORLD);
+        }
+        // Coordinates are in cells, which are single blocks at full detail
+        fillColumns(chunk, sectionY, 1, 1, size, size, 0, 0);
+    }
+
+    // Faces on the chunk border look into the adjacent chunk, if it is loaded and at the same LOD.
+    // Rows below and above the world read as AIR, so those faces stay exposed.
+    private void fillBorder(Chunk chunk, Direction dir, int sectionY,
+                            int px, int pz, int fromX, int fromZ) {
+        Chunk neighbor = chunk.getNeighbor(dir);
+        if (neighbor == null || neighbor.getLod() != lod) {
+            return;
+        }
+        int size = chunk.getSize() / scale;
+        boolean alongZ = dir == Direction.WEST || dir == Direction.EAST;
+        Lock lock = neighbor.getReadLock();
+        lock.lock();
+        try {
+            fillColumns(neighbor, sectionY, px, pz, alongZ ? 1 : size, alongZ ? size : 1, fromX, fromZ);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Copies width x depth columns of cells, starting at cell (fromX, fromZ) of the source chunk,
+    // into the padded array at (px, pz). Rows below the world keep their prefilled value.
+    private void fillColumns(Chunk source, int sectionY, int px, int pz, int width, int depth,
+                             int fromX, int fromZ) {
+        int cellsY = Chunk.SECTION_HEIGHT / scale;
+        int baseY = sectionY * cellsY;
+        for (int py = 0; py < cellsY + 2; py++) {
+            int y = baseY + py - 1;
+            if (y < 0) {
+                continue;
+            }
+            for (int dz = 0; dz < depth; dz++) {
+                int index = (py * paddedSize + pz + dz) * paddedSize + px;
+                for (int dx = 0; dx < width; dx++) {
+                    padded[index + dx] = sampleCell(source, fromX + dx, y, fromZ + dz);
+                }
+            }
+        }
+    }
+
+    // BlockType ordinal standing for one cell, taken from the chunk's cached downsampled cells
+    // above LOD 0. The caller holds the chunk's read lock.
+    private byte sampleCell(Chunk chunk, int cellX, int cellY, int cellZ) {
+        if (scale == 1) {
+            return (byte) chunk.getBlock(cellX, cellY, cellZ).ordinal();
+        }
+        int cellsY = Chunk.SECTION_HEIGHT / scale;
+        int sectionY = cellY / cellsY;
+        if (sectionY >= chunk.getSectionCount()) {
+            return AIR;
+        }
+        byte[] cells = chunk.getLodCells(sectionY, lod);
+        if (cells == null) {
+            return AIR;
+        }
+        int size = chunk.getSize() / scale;
+        return cells[((cellY % cellsY) * size + cellZ) * size + cellX];
+    }
+
+    private int paddedIndex(int x, int localY, int z) {
+        return ((localY + 1) * paddedSize + z + 1) * paddedSize + x + 1;
+    }
+
+    private int axisStride(int axis) {
+        switch (axis) {
+            case 0: return 1;
+            case 1: return paddedSize * paddedSize;
+            default: return paddedSize;
+        }
+    }
+
+    private boolean isFaceExposed(int paddedIndex, Direction dir) {
+        return !BlockRegistry.isOpaque(padded[paddedIndex + neighborOffset[dir.ordinal()]]);
+    }
+
+    private void meshSectionPerFace(Chunk chunk, int sectionY) {
+        int size = chunk.getSize();
+
+        // Blocks inside a full section can only be exposed on its shell
+        boolean full = sectionFull;
+
+        for (int ly = 0; ly < Chunk.SECTION_HEIGHT; ly++) {
+            int y = sectionY * Chunk.SECTION_HEIGHT + ly;
+            boolean interiorLayer = full
+                    && (ly > 0 || fullBelow)
+                    && (ly < Chunk.SECTION_HEIGHT - 1 || fullAbove);
+
+            for (int x = 0; x < size; x++) {
+                int zStep = (interiorLayer && x > 0 && x < size - 1) ? size - 1 : 1;
+                for (int z = 0; z < size; z += zStep) {
+                    int index = paddedIndex(x, ly, z);
+                    BlockType type = TYPES[padded[index]];
+                    if (!BlockRegistry.isRendered(type.ordinal())) {
+                        continue;
+                    }
+                    for (Direction dir : DIRECTIONS) {
+                        if (isFaceExposed(index, dir)) {
+                            addQuad(type, chunk, dir, x, y, z, 1, 1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void meshSectionGreedy(Chunk chunk, int sectionY) {
+        int baseY = sectionY * Chunk.SECTION_HEIGHT;
+        dims[0] = chunk.getSize() / scale;
+        dims[1] = Chunk.SECTION_HEIGHT / scale;
+        dims[2] = chunk.getSize() / scale;
+
+        for (Direction dir : DIRECTIONS) {
+            int d = NORMAL_AXIS[dir.ordinal()];
+            int u = U_AXIS[dir.ordinal()];
+            int v = V_AXIS[dir.ordinal()];
+            int width = dims[u];
+            int height = dims[v];
+            if (mask.length < width * height) {
+                mask = new int[width * height];
+            }
+            int[] mask = this.mask;
+            byte[] padded = this.padded;
+
+            int offset = neighborOffset[dir.ordinal()];
+            int strideU = axisStride(u);
+            int strideV = axisStride(v);
+
+            for (int slice = 0; slice < dims[d]; slice++) {
+                // Collect the exposed faces of this slice
+                int rowStart = paddedIndex(0, 0, 0) + slice * axisStride(d);
+                for (int j = 0; j < height; j++, rowStart += strideV) {
+                    int index = rowStart;
+                    for (int i = 0; i < width; i++, index += strideU) {
+                        int type = padded[index];
+                        boolean visible = BlockRegistry.isRendered(type) && !BlockRegistry.isOpaque(padded[index + offset]);
+                        mask[j * width + i] = visible ? type + 1 : 0;
+                    }
+                }
+
+                // Merge the mask into maximal same-type rectangles
+                for (int j = 0; j < height; j++) {
+                    for (int i = 0; i < width; ) {
+                        int type = mask[j * width + i];
+                        if (type == 0) {
+                            i++;
+                            continue;
+                        }
+
+                        int w = 1;
+                        while (i + w < width && mask[j * width + i + w] == type) {
+                            w++;
+                        }
+
+                        int h = 1;
+                        grow:
+                        while (j + h < height) {
+                            for (int k = 0; k < w; k++) {
+                                if (mask[(j + h) * width + i + k] != type) {
+                                    break grow;
+                                }
+                            }
+                            h++;
+                        }
+
+                        pos[d] = slice;
+                        pos[u] = i;
+                        pos[v] = j;
+                        addQuad(TYPES[type - 1], chunk, dir,
+                                pos[0] * scale, baseY + pos[1] * scale, pos[2] * scale, w * scale, h * scale);
+
+                        for (int dj = 0; dj < h; dj++) {
+                            for (int di = 0; di < w; di++) {
+                                mask[(j + dj) * width + i + di] = 0;
+                            }
+                        }
+                        i += w;
+                    }
+                }
+            }
+        }
+    }
+
+    // Block coordinates and size; the face sits one cell (scale blocks) out on positive sides
+    private void addQuad(BlockType type, Chunk chunk, Direction dir,
+                         int x, int y, int z, int w, int h) {
+        int d = NORMAL_AXIS[dir.ordinal()];
+        int u = U_AXIS[dir.ordinal()];
+        int v = V_AXIS[dir.ordinal()];
+
+        origin[0] = chunk.getX() + x;
+        origin[1] = y;
+        origin[2] = chunk.getZ() + z;
+        if (NORMAL_STEP[dir.ordinal()] > 0) {
+            origin[d] += scale;
+        }
+        du[0] = du[1] = du[2] = 0;
+        dv[0] = dv[1] = dv[2] = 0;
+        du[u] = w;
+        dv[v] = h;
+
+        builder.addQuad(origin[0], origin[1], origin[2],
+                        du[0], du[1], du[2],
+                        dv[0], dv[1], dv[2],
+                        dir, BlockRegistry.getTile(type, dir));
+    }
+}
@@ -0,0 +1,369 @@
+package mined;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Node;
+
+// Horizon ring around the voxel area. Terrain heights are sampled straight from the generator
+// into heightfield tiles, no chunks or block data involved. The tiles are the leaves of a
+// quadtree around the player: small next to the voxel area, larger towards the horizon.
+// Tiles are built on a worker thread and a new layout is swapped in once all of it is ready.
+public class FarTerrain {
+    private static final int ROOT_SIZE = 1024;
+    private static final int MIN_TILE_SIZE = ChunkManager.CHUNK_SIZE;
+    // Quads per tile side, whatever the tile size
+    private static final int GRID = 16;
+    // A tile is split while the player is closer to it than this many tile sizes
+    private static final float SPLIT_DISTANCE = 1.5f;
+    // Slightly below the voxel surface, so loaded chunks win where both are drawn
+    private static final float Y_OFFSET = -1f;
+    // Hangs below tile edges to hide cracks between tiles of different sizes
+    private static final float SKIRT_DEPTH = 16f;
+    private static final int MAX_UPLOADS_PER_FRAME = 8;
+    // Large tiles average their heights over samples this far apart. Point samples at the
+    // coarse vertex spacing would alias the terrain noise and make heights jump whenever
+    // tiles split or merge.
+    private static final int FILTER_SPACING = 4;
+
+    private final ChunkManager chunkManager;
+    private final int voxelDistance;
+    private final int farDistance;
+    private final Node node = new Node("FarTerrain");
+    private final ExecutorService executor;
+    private final Queue<TileResult> results = new ConcurrentLinkedQueue<>();
+
+    // Render thread only from here on
+    private final Map<Long, Geometry> tiles = new HashMap<>();
+    // Built for the current layout but not attached yet
+    private final Map<Long, Geometry> staged = new HashMap<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    // Never modified once assigned, the worker reads it to skip tiles that were dropped
+    private volatile Set<Long> layout = new HashSet<>();
+    private int centerChunkX = Integer.MAX_VALUE;
+    private int centerChunkZ = Integer.MAX_VALUE;
+    // Rings of chunks around the center that are meshed and left out of the layout, -1 for none
+    private int cutDistance = -1;
+    private int voxelMinX, voxelMaxX, voxelMinZ, voxelMaxZ;
+
+    // voxelDistance in chunks (the ChunkManager's render distance), farDistance in blocks
+    public FarTerrain(ChunkManager chunkManager, int voxelDistance, int farDistance) {
+        this.chunkManager = chunkManager;
+        this.voxelDistance = voxelDistance;
+        this.farDistance = farDistance;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FarTerrain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Node getNode() {
+        return node;
+    }
+
+    // Per frame: follows the player to a new chunk and attaches finished tiles
+    public void update(Vector3f location) {
+        int chunkX = Math.floorDiv((int) FastMath.floor(location.x), ChunkManager.CHUNK_SIZE);
+        int chunkZ = Math.floorDiv((int) FastMath.floor(location.z), ChunkManager.CHUNK_SIZE);
+        boolean moved = chunkX != centerChunkX || chunkZ != centerChunkZ;
+        if (moved) {
+            centerChunkX = chunkX;
+            centerChunkZ = chunkZ;
+        }
+        // Only chunks that are already drawn are cut out of the heightfield, so the ring that
+        // streams in after a move stays covered by far terrain until its meshes are attached
+        int ready = getReadyDistance(moved ? 0 : cutDistance + 1);
+        if (moved || ready != cutDistance) {
+            cutDistance = ready;
+            rebuildLayout(location.x, location.z);
+        }
+
+        boolean received = false;
+        TileResult result;
+        for (int i = 0; i < MAX_UPLOADS_PER_FRAME && (result = results.poll()) != null; i++) {
+            inFlight.remove(result.key);
+            if (!layout.contains(result.key) || tiles.containsKey(result.key)) {
+                continue;
+            }
+            if (result.mesh == null) {
+                // Skipped by the worker under an older layout, but needed again now
+                requestTile(result.key);
+                continue;
+            }
+            Geometry geometry = new Geometry("FarTile", result.mesh.createMesh());
+            geometry.setMaterial(BlockRegistry.getAtlasMaterial());
+            staged.put(result.key, geometry);
+            received = true;
+        }
+        if (received) {
+            commitIfComplete();
+        }
+    }
+
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Largest ring such that every chunk within it is meshed, checked outward from fromRing
+    // (the rings inside it are known to be meshed). Returns -1 when the center chunk is not.
+    private int getReadyDistance(int fromRing) {
+        int ring = fromRing;
+        while (ring <= voxelDistance && isRingMeshed(ring)) {
+            ring++;
+        }
+        return ring - 1;
+    }
+
+    private boolean isRingMeshed(int ring) {
+        for (int dx = -ring; dx <= ring; dx++) {
+            for (int dz = -ring; dz <= ring; dz++) {
+                if ((Math.abs(dx) == ring || Math.abs(dz) == ring)
+                        && !chunkManager.isChunkMeshed(centerChunkX + dx, centerChunkZ + dz)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void rebuildLayout(float playerX, float playerZ) {
+        // The cut-out square in blocks, chunk aligned so no leaf straddles its border
+        voxelMinX = (centerChunkX - cutDistance) * ChunkManager.CHUNK_SIZE;
+        voxelMaxX = (centerChunkX + cutDistance + 1) * ChunkManager.CHUNK_SIZE;
+        voxelMinZ = (centerChunkZ - cutDistance) * ChunkManager.CHUNK_SIZE;
+        voxelMaxZ = (centerChunkZ + cutDistance + 1) * ChunkManager.CHUNK_SIZE;
+
+        Set<Long> next = new HashSet<>();
+        int fromX = Math.floorDiv((int) playerX - farDistance, ROOT_SIZE);
+        int toX = Math.floorDiv((int) playerX + farDistance, ROOT_SIZE);
+        int fromZ = Math.floorDiv((int) playerZ - farDistance, ROOT_SIZE);
+        int toZ = Math.floorDiv((int) playerZ + farDistance, ROOT_SIZE);
+        for (int rx = fromX; rx <= toX; rx++) {
+            for (int rz = fromZ; rz <= toZ; rz++) {
+                collectTiles(rx * ROOT_SIZE, rz * ROOT_SIZE, ROOT_SIZE, playerX, playerZ, next);
+            }
+        }
+        layout = next;
+
+        staged.keySet().retainAll(next);
+        for (Long key : next) {
+            if (!tiles.containsKey(key) && !staged.containsKey(key)) {
+                requestTile(key);
+            }
+        }
+        commitIfComplete();
+    }
+
+    private void requestTile(long key) {
+        if (inFlight.add(key)) {
+            executor.execute(() -> {
+                // A newer layout may have dropped the tile while it was queued
+                MeshData mesh = layout.contains(key) ? buildTile(key) : null;
+                results.add(new TileResult(key, mesh));
+            });
+        }
+    }
+
+    private void collectTiles(int x0, int z0, int size, float playerX, float playerZ, Set<Long> out) {
+        int x1 = x0 + size;
+        int z1 = z0 + size;
+        boolean hasCut = cutDistance >= 0;
+        if (hasCut && x0 >= voxelMinX && x1 <= voxelMaxX && z0 >= voxelMinZ && z1 <= voxelMaxZ) {
+            return; // covered by voxel chunks
+        }
+        float dx = Math.max(Math.max(x0 - playerX, playerX - x1), 0f);
+        float dz = Math.max(Math.max(z0 - playerZ, playerZ - z1), 0f);
+        float distance = Math.max(dx, dz);
+        if (distance > farDistance) {
+            return;
+        }
+
+        boolean straddlesVoxels = hasCut && x0 < voxelMaxX && x1 > voxelMinX && z0 < voxelMaxZ && z1 > voxelMinZ;
+        if (size > MIN_TILE_SIZE && (straddlesVoxels || distance < size * SPLIT_DISTANCE)) {
+            int half = size / 2;
+            collectTiles(x0, z0, half, playerX, playerZ, out);
+            collectTiles(x0 + half, z0, half, playerX, playerZ, out);
+            collectTiles(x0, z0 + half, half, playerX, playerZ, out);
+            collectTiles(x0 + half, z0 + half, half, playerX, playerZ, out);
+        } else {
+            out.add(getTileKey(Integer.numberOfTrailingZeros(size), Math.floorDiv(x0, size), Math.floorDiv(z0, size)));
+        }
+    }
+
+    // Swaps in the new layout once every tile of it is built, so the horizon never has holes
+    private void commitIfComplete() {
+        for (Long key : layout) {
+            if (!tiles.containsKey(key) && !staged.containsKey(key)) {
+                return;
+            }
+        }
+        for (Map.Entry<Long, Geometry> entry : staged.entrySet()) {
+            node.attachChild(entry.getValue());
+            tiles.put(entry.getKey(), entry.getValue());
+        }
+        staged.clear();
+        Iterator<Map.Entry<Long, Geometry>> it = tiles.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Geometry> entry = it.next();
+            if (!layout.contains(entry.getKey())) {
+                entry.getValue().removeFromParent();
+                it.remove();
+            }
+        }
+    }
+
+    // Size exponent in the top 6 bits, then tile x and z (in tile sizes) in 29 bits each
+    private static long getTileKey(int level, int tileX, int tileZ) {
+        return ((long) level << 58) | ((tileX & 0x1FFFFFFFL) << 29) | (tileZ & 0x1FFFFFFFL);
+    }
+
+    // Heightfield of GRID x GRID quads plus a skirt along each edge. Runs on the worker.
+    private MeshData buildTile(long key) {
+        int size = 1 << (int) (key >>> 58);
+        int x0 = (int) ((key << 6) >> 35) * size;
+        int z0 = (int) ((key << 35) >> 35) * size;
+        int step = size / GRID;
+        int n = GRID + 1;
+
+        // One extra sample around the tile for the normals
+        int stride = n + 2;
+        float[] heights = new float[stride * stride];
+        for (int j = 0; j < stride; j++) {
+            for (int i = 0; i < stride; i++) {
+                heights[j * stride + i] = sampleHeight(x0 + (i - 1) * step, z0 + (j - 1) * step, step);
+            }
+        }
+
+        int vertexCount = n * n + 4 * n;
+        float[] positions = new float[vertexCount * 3];
+        float[] normals = new float[vertexCount * 3];
+        float[] texCoords = new float[vertexCount * 2];
+        float[] tileCoords = new float[vertexCount * 2];
+        int[] indices = new int[(GRID * GRID + 4 * GRID) * 6];
+
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) {
+                int v = j * n + i;
+                int h = (j + 1) * stride + i + 1;
+                positions[v * 3] = x0 + i * step;
+                positions[v * 3 + 1] = heights[h] + Y_OFFSET;
+                positions[v * 3 + 2] = z0 + j * step;
+
+                float nx = heights[h - 1] - heights[h + 1];
+                float nz = heights[h - stride] - heights[h + stride];
+                float ny = 2f * step;
+                float length = FastMath.sqrt(nx * nx + ny * ny + nz * nz);
+                normals[v * 3] = nx / length;
+                normals[v * 3 + 1] = ny / length;
+                normals[v * 3 + 2] = nz / length;
+            }
+        }
+
+        int index = 0;
+        for (int j = 0; j < GRID; j++) {
+            for (int i = 0; i < GRID; i++) {
+                int a = j * n + i;
+                // Counter-clockwise seen from above
+                indices[index++] = a;
+                indices[index++] = a + n;
+                indices[index++] = a + n + 1;
+                indices[index++] = a;
+                indices[index++] = a + n + 1;
+                indices[index++] = a + 1;
+            }
+        }
+
+        // Each edge is walked so that up x walk direction points out of the tile,
+        // which makes the skirt quads face outwards
+        int next = n * n;
+        next = addSkirt(positions, normals, indices, index, next, 0, 1, n);                       // -z
+        index += GRID * 6;
+        next = addSkirt(positions, normals, indices, index, next, n * n - 1, -1, n);              // +z
+        index += GRID * 6;
+        next = addSkirt(positions, normals, indices, index, next, n * (n - 1), -n, n);            // -x
+        index += GRID * 6;
+        addSkirt(positions, normals, indices, index, next, n - 1, n, n);                          // +x
+
+        // Every vertex samples the middle of the grass tile, so distant ground is a flat color
+        float tileU = BlockAtlas.getTileU(BlockAtlas.GRASS_TOP);
+        float tileV = BlockAtlas.getTileV(BlockAtlas.GRASS_TOP);
+        for (int v = 0; v < vertexCount; v++) {
+            texCoords[v * 2] = 0.5f;
+            texCoords[v * 2 + 1] = 0.5f;
+            tileCoords[v * 2] = tileU;
+            tileCoords[v * 2 + 1] = tileV;
+        }
+        return new MeshData(positions, normals, texCoords, tileCoords, indices);
+    }
+
+    // Mean terrain height over the step x step cell centered on the vertex
+    private float sampleHeight(int x, int z, int step) {
+        if (step <= FILTER_SPACING) {
+            return chunkManager.getTerrainHeight(x, z);
+        }
+        int samples = step / FILTER_SPACING;
+        int offset = (FILTER_SPACING - step) / 2;
+        float sum = 0f;
+        for (int j = 0; j < samples; j++) {
+            for (int i = 0; i < samples; i++) {
+                sum += chunkManager.getTerrainHeight(x + offset + i * FILTER_SPACING, z + offset + j * FILTER_SPACING);
+            }
+        }
+        return sum / (samples * samples);
+    }
+
+    // Adds n vertices SKIRT_DEPTH below the edge starting at surface vertex first and moving
+    // by stride, plus the quads joining them. Returns the next free vertex.
+    private static int addSkirt(float[] positions, float[] normals, int[] indices, int index,
+                                int next, int first, int stride, int n) {
+        for (int k = 0; k < n; k++) {
+            int top = first + k * stride;
+            int bottom = next + k;
+            positions[bottom * 3] = positions[top * 3];
+            positions[bottom * 3 + 1] = positions[top * 3 + 1] - SKIRT_DEPTH;
+            positions[bottom * 3 + 2] = positions[top * 3 + 2];
+            // Shaded like the surface above it, a darker band would stand out on the horizon
+            normals[bottom * 3] = normals[top * 3];
+            normals[bottom * 3 + 1] = normals[top * 3 + 1];
+            normals[bottom * 3 + 2] = normals[top * 3 + 2];
+        }
+        for (int k = 0; k < n - 1; k++) {
+            int a = first + k * stride;
+            int b = a + stride;
+            int aBottom = next + k;
+            int bBottom = aBottom + 1;
+            indices[index++] = a;
+            indices[index++] = b;
+            indices[index++] = bBottom;
+            indices[index++] = a;
+            indices[index++] = bBottom;
+            indices[index++] = aBottom;
+        }
+        return next + n;
+    }
+
+    private static final class TileResult {
+        final long key;
+        final MeshData mesh;
+
+        TileResult(long key, MeshData mesh) {
+            this.key = key;
+            this.mesh = mesh;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package mined;
+
+import java.util.function.Consumer;
+
+// Thread-safe map from primitive long keys to non-null values.
+// Keys are spread over independently locked stripes, each an open-addressing table with
+// linear probing, so lookups never box the key or allocate.
+public class LongObjectMap<V> {
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final Stripe<V>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public LongObjectMap() {
+        stripes = (Stripe<V>[]) new Stripe<?>[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    public V get(long key) {
+        int hash = hash(key);
+        Stripe<V> stripe = stripes[hash >>> (32 - STRIPE_BITS)];
+        synchronized (stripe) {
+            return stripe.get(key, hash);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    // Returns the previous value, or null
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        int hash = hash(key);
+        Stripe<V> stripe = stripes[hash >>> (32 - STRIPE_BITS)];
+        synchronized (stripe) {
+            return stripe.put(key, hash, value);
+        }
+    }
+
+    // Stores the value only if the key is absent. Returns the existing value, or null if stored.
+    public V putIfAbsent(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        int hash = hash(key);
+        Stripe<V> stripe = stripes[hash >>> (32 - STRIPE_BITS)];
+        synchronized (stripe) {
+            V existing = stripe.get(key, hash);
+            if (existing != null) {
+                return existing;
+            }
+            stripe.put(key, hash, value);
+            return null;
+        }
+    }
+
+    // Returns the removed value, or null
+    public V remove(long key) {
+        int hash = hash(key);
+        Stripe<V> stripe = stripes[hash >>> (32 - STRIPE_BITS)];
+        synchronized (stripe) {
+            return stripe.remove(key, hash);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    // Visits a per-stripe snapshot, so the action may modify the map
+    public void forEachValue(Consumer<? super V> action) {
+        for (Stripe<V> stripe : stripes) {
+            Object[] snapshot;
+            synchronized (stripe) {
+                snapshot = stripe.values.clone();
+            }
+            for (Object value : snapshot) {
+                if (value != null) {
+                    @SuppressWarnings("unchecked")
+                    V v = (V) value;
+                    action.accept(v);
+                }
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // Murmur3 finalizer, packed coordinates differ mostly in a few low bits
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static final class Stripe<V> {
+        long[] keys = new long[INITIAL_CAPACITY];
+        // A null value marks a free slot
+        Object[] values = new Object[INITIAL_CAPACITY];
+        int size;
+
+        @SuppressWarnings("unchecked")
+        V get(long key, int hash) {
+            int mask = keys.length - 1;
+            for (int i = hash & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return (V) values[i];
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V put(long key, int hash, V value) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    V previous = (V) values[i];
+                    values[i] = value;
+                    return previous;
+                }
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size > keys.length * LOAD_FACTOR) {
+                rehash(keys.length * 2);
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(long key, int hash) {
+            int mask = keys.length - 1;
+            for (int i = hash & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    V previous = (V) values[i];
+                    shiftBack(i);
+                    size--;
+                    return previous;
+                }
+            }
+            return null;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        private void shiftBack(int gap) {
+            int mask = keys.length - 1;
+            int i = gap;
+            while (true) {
+                i = (i + 1) & mask;
+                if (values[i] == null) {
+                    break;
+                }
+                int home = hash(keys[i]) & mask;
+                // Move the entry into the gap unless its home slot lies between gap and i
+                boolean movable = gap <= i ? (home <= gap || home > i) : (home <= gap && home > i);
+                if (movable) {
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    gap = i;
+                }
+            }
+            values[gap] = null;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[capacity];
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] == null) {
+                    continue;
+                }
+                int i = hash(oldKeys[j]) & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+
+        void clear() {
+            keys = new long[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+            size = 0;
+        }
+    }
+}
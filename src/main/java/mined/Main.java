@@ -2,8 +2,6 @@ package mined;
 
 import java.awt.AWTException;
 import java.awt.Robot;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,27 +14,28 @@ import com.jme3.input.controls.ActionListener;
 import com.jme3.input.controls.AnalogListener;
 import com.jme3.input.controls.KeyTrigger;
 import com.jme3.input.controls.MouseAxisTrigger;
+import com.jme3.input.controls.MouseButtonTrigger;
 import com.jme3.light.AmbientLight;
 import com.jme3.light.DirectionalLight;
 import com.jme3.material.Material;
-import com.jme3.material.MaterialDef;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.FastMath;
 import com.jme3.math.Quaternion;
-import com.jme3.math.Ray;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
 import com.jme3.scene.debug.Arrow;
 import com.jme3.scene.shape.Quad;
 import com.jme3.system.AppSettings;
-import com.jme3.texture.Texture;
 
 public class Main extends SimpleApplication {
     private static Main instance;
     private static final float MOVE_SPEED = 10f;
-    private static final float PLAYER_HEIGHT = 1.8f;
     private static final int GROUND_HEIGHT = 64;
+    // In chunks, distant rings are meshed at a lower level of detail (see ChunkManager.setLodRings)
+    private static final int RENDER_DISTANCE = 16;
+    // In blocks, heightfield terrain fills the ring between the voxel chunks and this distance
+    private static final int FAR_DISTANCE = 2048;
     private static final float MAX_REACH = 5.0f;
     private static final float MOUSE_SENSITIVITY = 0.7f;  // Adjust this value if mouse look is too slow/fast
     private static final float MAX_VERTICAL_ANGLE = (float)(Math.PI/2 - 0.1f); 
@@ -50,13 +49,18 @@ public class Main extends SimpleApplication {
     private float currentYaw = 0f; // Current player facing direction
     private Node worldNode;
     private Node playerNode;
-    private Material dirtMaterial, grassMaterial, stoneMaterial, outlineMaterial;
+    private PlayerPhysics playerPhysics;
+    // Render-thread block lookups (targeting, collision), caches the last chunk
+    private BlockAccess blockAccess;
+    private Material outlineMaterial;
     private DirectionalLight sun;
     private AmbientLight ambient;
     private float timeOfDay = 6f; // Start at 6am
     private static final float DAY_CYCLE_SPEED = 0.001f; // Adjust for faster/slower days
     private ChunkManager chunkManager;
-    private Map<String, Block> blocks = new HashMap<>();
+    // Player block edits go through here so they are remeshed right away
+    private WorldEdit worldEdit;
+    private FarTerrain farTerrain;
     private BitmapText loadingText;
     private boolean isLoading = true;
     private boolean forward = false;
@@ -75,7 +79,6 @@ public class Main extends SimpleApplication {
         System.out.println("Starting application initialization...");
         instance = this;
         debugResourceLoading();
-        Block.setBlockRegistry(blocks);
         
         // Set up lighting first
         initLighting();
@@ -95,11 +98,13 @@ public class Main extends SimpleApplication {
         chunkManager = new ChunkManager(
             this,
             worldNode,
-            2,  // render distance
-            dirtMaterial,
-            grassMaterial,
-            stoneMaterial
+            RENDER_DISTANCE
         );
+        worldEdit = new WorldEdit(chunkManager);
+        farTerrain = new FarTerrain(chunkManager, RENDER_DISTANCE, FAR_DISTANCE);
+        rootNode.attachChild(farTerrain.getNode());
+        blockAccess = new BlockAccess(chunkManager);
+        playerPhysics = new PlayerPhysics(blockAccess::isBlocking);
         
         // Initialize camera with proper settings
         initCameraControls();
@@ -141,6 +146,8 @@ private void initCameraControls() {
     // Set initial camera position
     cam.setLocation(new Vector3f(0, 100, 0));
     cam.lookAt(new Vector3f(0, 0, 0), Vector3f.UNIT_Y);
+    // Far enough to see the far terrain on the horizon
+    cam.setFrustumFar(FAR_DISTANCE * 1.5f);
     
     viewPort.setBackgroundColor(new ColorRGBA(0.5f, 0.6f, 0.7f, 1.0f));
     inputManager.setCursorVisible(false);
@@ -160,6 +167,9 @@ private void initKeys() {
     inputManager.addMapping("Right", new KeyTrigger(KeyInput.KEY_D));
     inputManager.addMapping("Jump", new KeyTrigger(KeyInput.KEY_SPACE));
     inputManager.addMapping("TogglePause", new KeyTrigger(KeyInput.KEY_ESCAPE));
+    inputManager.addMapping("Break", new MouseButtonTrigger(MouseInput.BUTTON_LEFT));
+    inputManager.addMapping("Place", new MouseButtonTrigger(MouseInput.BUTTON_RIGHT));
+    inputManager.addListener(actionListener, "Break", "Place");
 // Update the mouse input part of initKeys()
     inputManager.addMapping("LookLeft", new MouseAxisTrigger(MouseInput.AXIS_X, true));
     inputManager.addMapping("LookRight", new MouseAxisTrigger(MouseInput.AXIS_X, false));
@@ -292,52 +302,33 @@ private void updateDayNightCycle(float tpf) {
     viewPort.setBackgroundColor(skyColor);
 }
     private void handleBlockBreak() {
-        Ray ray = new Ray(cam.getLocation(), cam.getDirection());
-        Block targetBlock = raycastBlock(ray, MAX_REACH);
-        if (targetBlock != null) {
-            targetBlock.scheduleBreak();
+        VoxelHit hit = raycastBlock(MAX_REACH);
+        if (hit != null && worldEdit.setBlock(hit.getX(), hit.getY(), hit.getZ(), BlockType.AIR) > 0) {
+            worldEdit.commit(false);
         }
     }
 
     private void handleBlockPlace() {
-        Ray ray = new Ray(cam.getLocation(), cam.getDirection());
-        Block hitBlock = raycastBlock(ray, MAX_REACH);
-        if (hitBlock != null) {
-            Vector3f blockCenter = hitBlock.getPosition();
-            float dx = ray.origin.x - blockCenter.x;
-            float dy = ray.origin.y - blockCenter.y;
-            float dz = ray.origin.z - blockCenter.z;
-            Vector3f placePos = blockCenter.clone();
-
-            if (Math.abs(dx) > Math.abs(dy) && Math.abs(dx) > Math.abs(dz)) {
-                placePos.x += (dx > 0) ? 1 : -1;
-            } else if (Math.abs(dy) > Math.abs(dz)) {
-                placePos.y += (dy > 0) ? 1 : -1;
-            } else {
-                placePos.z += (dz > 0) ? 1 : -1;
-            }
+        VoxelHit hit = raycastBlock(MAX_REACH);
+        if (hit == null || hit.getFace() == null) {
+            return;
+        }
 
-            String key = Math.round(placePos.x) + "," + Math.round(placePos.y) + "," + Math.round(placePos.z);
-            if (!blocks.containsKey(key)) {
-                Block.placeBlock(placePos, BlockType.DIRT, worldNode, dirtMaterial);
-            }
+        // Place against the face the ray actually entered through
+        int x = hit.getPlaceX();
+        int y = hit.getPlaceY();
+        int z = hit.getPlaceZ();
+        if (!isSolidBlock(x, y, z) && worldEdit.setBlock(x, y, z, BlockType.DIRT) > 0) {
+            worldEdit.commit(false);
         }
     }
 
-    private Block raycastBlock(Ray ray, float maxDistance) {
-        Block closestBlock = null;
-        float closestDistance = maxDistance;
+    private VoxelHit raycastBlock(float maxDistance) {
+        return VoxelRaycast.cast(cam.getLocation(), cam.getDirection(), maxDistance, this::isSolidBlock);
+    }
 
-        for (Block block : blocks.values()) {
-            if (block.getGeometry() != null && block.intersects(ray.origin, maxDistance)) {
-                float distance = block.getPosition().distance(ray.origin);
-                if (distance < closestDistance) {
-                    closestBlock = block;
-                    closestDistance = distance;
-                }
-            }
-        }
-        return closestBlock;
+    private boolean isSolidBlock(int x, int y, int z) {
+        return blockAccess.isSolid(x, y, z);
     }
     private void updateCameraRotation() {
     // Create quaternion for rotation
@@ -346,33 +337,18 @@ private void updateDayNightCycle(float tpf) {
     cam.setRotation(rotation);
 }
     private int findHighestBlock(int x, int z, int radius) {
-        System.out.println("Searching for highest block at " + x + ", " + z + " with radius " + radius);
         int highest = -1;
 
         for (int dx = -radius; dx <= radius; dx++) {
             for (int dz = -radius; dz <= radius; dz++) {
-                int worldX = x + dx;
-                int worldZ = z + dz;
-                int chunkX = Math.floorDiv(worldX, 16);
-                int chunkZ = Math.floorDiv(worldZ, 16);
-
-                Chunk chunk = chunkManager.getChunk(chunkX, chunkZ);
-                if (chunk != null) {
-                    // Convert world coordinates to chunk-local coordinates
-                    int localX = Math.floorMod(worldX, 16);
-                    int localZ = Math.floorMod(worldZ, 16);
-
-                    int height = chunk.getHighestBlock(localX, localZ);
-                    System.out.printf("Chunk(%d,%d) Local(%d,%d) Height: %d%n", chunkX, chunkZ, localX, localZ, height);
-
-                    if (height > highest) {
-                        highest = height;
-                    }
+                // Heightmap lookup, no column scan
+                int height = blockAccess.getHighestBlock(x + dx, z + dz);
+                if (height > highest) {
+                    highest = height;
                 }
             }
         }
 
-        System.out.println("Final highest block found: " + highest);
         return highest;
     }
     
@@ -396,6 +372,7 @@ private void initChunkLoading() {
 
             // Find spawn position
             int highestY = findHighestBlock(0, 0, 2);
+            System.out.println("Highest block around spawn: " + highestY);
             Vector3f spawnPos = new Vector3f(0, GROUND_HEIGHT + 10, 0);
             if (highestY != -1) {
                 spawnPos.y = highestY + 5; // Spawn slightly above highest block
@@ -406,7 +383,8 @@ private void initChunkLoading() {
             // Set player and camera position
             if (playerNode != null) {
                 playerNode.setLocalTranslation(spawnPos);
-                cam.setLocation(spawnPos.add(0, PLAYER_HEIGHT, 0));
+                playerPhysics.setPosition(spawnPos);
+                cam.setLocation(playerPhysics.getEyePosition(new Vector3f()));
                 // Reset rotation
                 rotationX = 0;
                 rotationY = 0;
@@ -439,11 +417,8 @@ private void initChunkLoading() {
 
     private void updateChunks() {
         if (!isLoading) {
-            Vector3f playerPos = cam.getLocation();
-            int playerChunkX = Math.floorDiv((int)playerPos.x, 16);
-            int playerChunkZ = Math.floorDiv((int)playerPos.z, 16);
-            
-            chunkManager.updateChunks(playerChunkX, playerChunkZ);
+            // Position and view direction, so chunks in front of the camera load first
+            chunkManager.updateChunks(cam);
         }
     }
 
@@ -488,20 +463,19 @@ public void simpleUpdate(float tpf) {
         if (right) moveDir.addLocal(camLeft.negate());
 
         if (moveDir.lengthSquared() > 0) {
-            moveDir.normalizeLocal();
-            Vector3f pos = cam.getLocation();
-            Vector3f newPos = pos.add(moveDir.mult(MOVE_SPEED * tpf));
-            System.out.println("Moving from " + pos + " to " + newPos);
+            moveDir.normalizeLocal().multLocal(MOVE_SPEED);
+        }
 
-            // Ground collision check
-            int highestY = findHighestBlock((int) newPos.x, (int) newPos.z, 1);
-            if (highestY != -1) {
-                float minHeight = highestY + 2;
-                if (newPos.y < minHeight) {
-                    newPos.y = minHeight;
-                }
-            }
-            cam.setLocation(newPos);
+        // Gravity, jumping and collision against the blocks around the player
+        playerPhysics.update(tpf, moveDir.x, moveDir.z, jump);
+        playerNode.setLocalTranslation(playerPhysics.getPosition());
+        cam.setLocation(playerPhysics.getEyePosition(cam.getLocation()));
+
+        // Stream chunks around the player
+        chunkUpdateTimer += tpf;
+        if (chunkUpdateTimer >= CHUNK_UPDATE_INTERVAL) {
+            chunkUpdateTimer = 0f;
+            updateChunks();
         }
 
         // Debug camera position periodically
@@ -512,9 +486,28 @@ public void simpleUpdate(float tpf) {
                 // Add this line before the end of the method
         updateDayNightCycle(tpf);
     }
-    
+
+    // Edited sections, finished meshes and queued loads, within the per-frame budget.
+    // Runs while loading or paused too, so spawn meshes still show up.
+    if (chunkManager != null) {
+        chunkManager.update();
+    }
+    if (farTerrain != null && !isLoading) {
+        farTerrain.update(cam.getLocation());
+    }
 }
 
+    @Override
+    public void destroy() {
+        if (chunkManager != null) {
+            chunkManager.shutdown();
+        }
+        if (farTerrain != null) {
+            farTerrain.shutdown();
+        }
+        super.destroy();
+    }
+
     public static void main(String[] args) {
         Logger.getLogger("").setLevel(Level.WARNING);
         Main app = new Main();
@@ -562,77 +555,14 @@ public void simpleUpdate(float tpf) {
     }
 
 private void initMaterials() {
-    MaterialDef unshadedDef = (MaterialDef) assetManager.loadAsset("Common/MatDefs/Misc/Unshaded.j3md");
     System.out.println("\n=== Starting Material Initialization ===");
-    
-    // Dirt material
-    dirtMaterial = new Material(unshadedDef);
-    try {
-        Texture dirtTex = assetManager.loadTexture("Textures/dirt.png");
-        dirtTex.setWrap(Texture.WrapMode.Repeat);
-        dirtTex.setMagFilter(Texture.MagFilter.Nearest);
-        dirtTex.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
-        dirtMaterial.setTexture("ColorMap", dirtTex);
-        System.out.println("\nDirt texture info:");
-        System.out.println("  Size: " + dirtTex.getImage().getWidth() + "x" + dirtTex.getImage().getHeight());
-        System.out.println("  Format: " + dirtTex.getImage().getFormat());
-        System.out.println("  Mag filter: " + dirtTex.getMagFilter());
-        System.out.println("  Min filter: " + dirtTex.getMinFilter());
-        // Add a very slight tint to verify material is being applied
-        dirtMaterial.setColor("Color", new ColorRGBA(1f, 0.95f, 0.95f, 1f));
-    } catch (Exception e) {
-        System.err.println("Dirt texture error: " + e);
-        e.printStackTrace();
-        dirtMaterial.setColor("Color", ColorRGBA.Red);
-    }
 
-    // Grass material
-    grassMaterial = new Material(unshadedDef);
-    try {
-        Texture grassTex = assetManager.loadTexture("Textures/grass.png");
-        grassTex.setWrap(Texture.WrapMode.Repeat);
-        grassTex.setMagFilter(Texture.MagFilter.Nearest);
-        grassTex.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
-        grassMaterial.setTexture("ColorMap", grassTex);
-        System.out.println("\nGrass texture info:");
-        System.out.println("  Size: " + grassTex.getImage().getWidth() + "x" + grassTex.getImage().getHeight());
-        System.out.println("  Format: " + grassTex.getImage().getFormat());
-        System.out.println("  Mag filter: " + grassTex.getMagFilter());
-        System.out.println("  Min filter: " + grassTex.getMinFilter());
-        // Add a very slight tint to verify material is being applied
-        grassMaterial.setColor("Color", new ColorRGBA(0.95f, 1f, 0.95f, 1f));
-    } catch (Exception e) {
-        System.err.println("Grass texture error: " + e);
-        e.printStackTrace();
-        grassMaterial.setColor("Color", ColorRGBA.Green);
-    }
-
-    // Stone material
-    stoneMaterial = new Material(unshadedDef);
-    try {
-        Texture stoneTex = assetManager.loadTexture("Textures/stone.png");
-        stoneTex.setWrap(Texture.WrapMode.Repeat);
-        stoneTex.setMagFilter(Texture.MagFilter.Nearest);
-        stoneTex.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
-        stoneMaterial.setTexture("ColorMap", stoneTex);
-        System.out.println("\nStone texture info:");
-        System.out.println("  Size: " + stoneTex.getImage().getWidth() + "x" + stoneTex.getImage().getHeight());
-        System.out.println("  Format: " + stoneTex.getImage().getFormat());
-        System.out.println("  Mag filter: " + stoneTex.getMagFilter());
-        System.out.println("  Min filter: " + stoneTex.getMinFilter());
-        // Add a very slight tint to verify material is being applied
-        stoneMaterial.setColor("Color", new ColorRGBA(0.95f, 0.95f, 1f, 1f));
-    } catch (Exception e) {
-        System.err.println("Stone texture error: " + e);
-        e.printStackTrace();
-        stoneMaterial.setColor("Color", ColorRGBA.Blue);
-    }
+    // Shared atlas material, all block types draw from it
+    BlockRegistry.init(assetManager);
 
     // Print final material states
     System.out.println("\nFinal material states:");
-    System.out.println("Dirt material params: " + dirtMaterial.getParamsMap());
-    System.out.println("Grass material params: " + grassMaterial.getParamsMap());
-    System.out.println("Stone material params: " + stoneMaterial.getParamsMap());
+    System.out.println("Atlas material params: " + BlockRegistry.getAtlasMaterial().getParamsMap());
     System.out.println("\n=== Material Initialization Complete ===\n");
 }
 
@@ -0,0 +1,126 @@
+package mined;
+
+import java.util.Arrays;
+
+import com.jme3.math.Vector3f;
+
+public class MeshBuilder {
+    private static final int INITIAL_QUADS = 256;
+
+    private float[] positions = new float[INITIAL_QUADS * 12];
+    private float[] normals = new float[INITIAL_QUADS * 12];
+    private float[] texCoords = new float[INITIAL_QUADS * 8];
+    private float[] tileCoords = new float[INITIAL_QUADS * 8];
+    private int[] indices = new int[INITIAL_QUADS * 6];
+    private int vertexCount;
+    private int indexCount;
+
+    public void reset() {
+        vertexCount = 0;
+        indexCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return vertexCount == 0;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    // Adds the quad o, o+u, o+u+v, o+v with its normal taken from the face direction.
+    // Texture coordinates count blocks along the quad so the atlas tile repeats once per block.
+    public void addQuad(float ox, float oy, float oz,
+                        float ux, float uy, float uz,
+                        float vx, float vy, float vz,
+                        Direction face, int tile) {
+        ensureCapacity(4, 6);
+
+        int p = vertexCount * 3;
+        putVertex(p, ox, oy, oz);
+        putVertex(p + 3, ox + ux, oy + uy, oz + uz);
+        putVertex(p + 6, ox + ux + vx, oy + uy + vy, oz + uz + vz);
+        putVertex(p + 9, ox + vx, oy + vy, oz + vz);
+
+        Vector3f normal = face.getNormal();
+        for (int i = 0; i < 4; i++) {
+            normals[p + i * 3] = normal.x;
+            normals[p + i * 3 + 1] = normal.y;
+            normals[p + i * 3 + 2] = normal.z;
+        }
+
+        float w = Math.abs(ux + uy + uz);
+        float h = Math.abs(vx + vy + vz);
+        int t = vertexCount * 2;
+        if (uy != 0) {
+            // Keep the texture upright on side faces whose u edge runs vertically
+            putTexCoord(t, 0, 0);
+            putTexCoord(t + 2, 0, w);
+            putTexCoord(t + 4, h, w);
+            putTexCoord(t + 6, h, 0);
+        } else {
+            putTexCoord(t, 0, 0);
+            putTexCoord(t + 2, w, 0);
+            putTexCoord(t + 4, w, h);
+            putTexCoord(t + 6, 0, h);
+        }
+
+        float tileU = BlockAtlas.getTileU(tile);
+        float tileV = BlockAtlas.getTileV(tile);
+        for (int i = 0; i < 4; i++) {
+            tileCoords[t + i * 2] = tileU;
+            tileCoords[t + i * 2 + 1] = tileV;
+        }
+
+        int base = vertexCount;
+        indices[indexCount] = base;
+        indices[indexCount + 1] = base + 1;
+        indices[indexCount + 2] = base + 2;
+        indices[indexCount + 3] = base;
+        indices[indexCount + 4] = base + 2;
+        indices[indexCount + 5] = base + 3;
+
+        vertexCount += 4;
+        indexCount += 6;
+    }
+
+    // Copies the current contents out so the builder can be reused straight away
+    public MeshData build() {
+        return new MeshData(
+            Arrays.copyOf(positions, vertexCount * 3),
+            Arrays.copyOf(normals, vertexCount * 3),
+            Arrays.copyOf(texCoords, vertexCount * 2),
+            Arrays.copyOf(tileCoords, vertexCount * 2),
+            Arrays.copyOf(indices, indexCount)
+        );
+    }
+
+    private void putVertex(int offset, float x, float y, float z) {
+        positions[offset] = x;
+        positions[offset + 1] = y;
+        positions[offset + 2] = z;
+    }
+
+    private void putTexCoord(int offset, float s, float t) {
+        texCoords[offset] = s;
+        texCoords[offset + 1] = t;
+    }
+
+    private void ensureCapacity(int extraVertices, int extraIndices) {
+        // Arrays only ever grow, so a warmed-up builder stops allocating
+        if ((vertexCount + extraVertices) * 3 > positions.length) {
+            int newVertices = Math.max(positions.length / 3 * 2, vertexCount + extraVertices);
+            positions = Arrays.copyOf(positions, newVertices * 3);
+            normals = Arrays.copyOf(normals, newVertices * 3);
+            texCoords = Arrays.copyOf(texCoords, newVertices * 2);
+            tileCoords = Arrays.copyOf(tileCoords, newVertices * 2);
+        }
+        if (indexCount + extraIndices > indices.length) {
+            indices = Arrays.copyOf(indices, Math.max(indices.length * 2, indexCount + extraIndices));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package mined;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.util.BufferUtils;
+
+// Immutable vertex data produced off the render thread
+public final class MeshData {
+    private final float[] positions;
+    private final float[] normals;
+    // Per-block repeat coordinates and the atlas tile origin of each vertex
+    private final float[] texCoords;
+    private final float[] tileCoords;
+    private final int[] indices;
+
+    public MeshData(float[] positions, float[] normals, float[] texCoords, float[] tileCoords, int[] indices) {
+        this.positions = positions;
+        this.normals = normals;
+        this.texCoords = texCoords;
+        this.tileCoords = tileCoords;
+        this.indices = indices;
+    }
+
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    public int getTriangleCount() {
+        return indices.length / 3;
+    }
+
+    // Must be called on the render thread
+    public Mesh createMesh() {
+        Mesh mesh = new Mesh();
+        writeTo(mesh);
+        return mesh;
+    }
+
+    // Refills a mesh, writing into its existing direct buffers where they are large enough.
+    // Must be called on the render thread.
+    public void writeTo(Mesh mesh) {
+        writeFloats(mesh, Type.Position, 3, positions);
+        writeFloats(mesh, Type.Normal, 3, normals);
+        writeFloats(mesh, Type.TexCoord, 2, texCoords);
+        writeFloats(mesh, Type.TexCoord2, 2, tileCoords);
+        writeInts(mesh, Type.Index, 3, indices);
+        mesh.updateCounts();
+        mesh.updateBound();
+    }
+
+    private static void writeFloats(Mesh mesh, Type type, int components, float[] data) {
+        VertexBuffer vertexBuffer = mesh.getBuffer(type);
+        if (vertexBuffer == null) {
+            mesh.setBuffer(type, components, BufferUtils.createFloatBuffer(data));
+            return;
+        }
+        FloatBuffer buffer = (FloatBuffer) vertexBuffer.getData();
+        if (buffer.capacity() >= data.length) {
+            buffer.clear();
+            buffer.put(data).flip();
+            vertexBuffer.updateData(buffer);
+        } else {
+            vertexBuffer.updateData(BufferUtils.createFloatBuffer(data));
+            BufferUtils.destroyDirectBuffer(buffer);
+        }
+    }
+
+    private static void writeInts(Mesh mesh, Type type, int components, int[] data) {
+        VertexBuffer vertexBuffer = mesh.getBuffer(type);
+        if (vertexBuffer == null) {
+            mesh.setBuffer(type, components, BufferUtils.createIntBuffer(data));
+            return;
+        }
+        IntBuffer buffer = (IntBuffer) vertexBuffer.getData();
+        if (buffer.capacity() >= data.length) {
+            buffer.clear();
+            buffer.put(data).flip();
+            vertexBuffer.updateData(buffer);
+        } else {
+            vertexBuffer.updateData(BufferUtils.createIntBuffer(data));
+            BufferUtils.destroyDirectBuffer(buffer);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package mined;
+
+import java.util.ArrayDeque;
+
+import com.jme3.renderer.Renderer;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.util.BufferUtils;
+
+// Section meshes whose section or chunk went away, kept so the next section can refill their
+// direct buffers instead of allocating new ones. Render thread only.
+public class MeshPool {
+    private final Renderer renderer;
+    private final int capacity;
+    private final ArrayDeque<Mesh> meshes = new ArrayDeque<>();
+
+    // The renderer may be null, GPU buffers of dropped meshes are then left to jME's cleanup
+    public MeshPool(Renderer renderer, int capacity) {
+        this.renderer = renderer;
+        this.capacity = capacity;
+    }
+
+    public Mesh obtain() {
+        Mesh mesh = meshes.poll();
+        return mesh != null ? mesh : new Mesh();
+    }
+
+    // The mesh must no longer be attached to any geometry in the scene
+    public void release(Mesh mesh) {
+        if (meshes.size() < capacity) {
+            meshes.push(mesh);
+            return;
+        }
+        // Pool is full, free the memory now instead of waiting for GC and the buffer cleaner
+        for (VertexBuffer vertexBuffer : mesh.getBufferList()) {
+            if (renderer != null) {
+                renderer.deleteBuffer(vertexBuffer);
+            }
+            BufferUtils.destroyDirectBuffer(vertexBuffer.getData());
+        }
+    }
+
+    public int size() {
+        return meshes.size();
+    }
+}
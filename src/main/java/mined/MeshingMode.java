@@ -0,0 +1,8 @@
+package mined;
+
+public enum MeshingMode {
+    // One quad per exposed block face
+    PER_FACE,
+    // Coplanar same-type faces merged into maximal rectangles per slice
+    GREEDY
+}
@@ -0,0 +1,147 @@
+package mined;
+
+import com.jme3.math.Vector3f;
+
+// Moves the player's bounding box through the voxel grid. Each axis is swept separately and
+// only the cells the box would pass through on that axis are tested, so the cost per frame
+// depends on the distance moved, not on the size of the world.
+public class PlayerPhysics {
+    public static final float WIDTH = 0.6f;
+    public static final float HEIGHT = 1.8f;
+    public static final float EYE_HEIGHT = 1.6f;
+    private static final float GRAVITY = 25f;
+    private static final float JUMP_SPEED = 8f;
+    private static final float MAX_FALL_SPEED = 50f;
+    // Longest step simulated at once, keeps a frame hitch from launching the player
+    private static final float MAX_STEP = 0.05f;
+    // Frame time beyond this (a loading stall) is dropped instead of simulated
+    private static final float MAX_FRAME_TIME = 0.5f;
+    // Faces that only touch do not count as overlapping
+    private static final float EPSILON = 1e-4f;
+
+    private final VoxelRaycast.SolidTest solid;
+    // Center of the bottom face of the box
+    private final Vector3f position = new Vector3f();
+    private final float[] min = new float[3];
+    private final float[] max = new float[3];
+    private final int[] cell = new int[3];
+    private float verticalSpeed;
+    private boolean onGround;
+
+    public PlayerPhysics(VoxelRaycast.SolidTest solid) {
+        this.solid = solid;
+    }
+
+    public void setPosition(Vector3f feet) {
+        position.set(feet);
+        verticalSpeed = 0f;
+        onGround = false;
+    }
+
+    public Vector3f getPosition() {
+        return position;
+    }
+
+    public Vector3f getEyePosition(Vector3f store) {
+        return store.set(position.x, position.y + EYE_HEIGHT, position.z);
+    }
+
+    public boolean isOnGround() {
+        return onGround;
+    }
+
+    // Horizontal speeds are in blocks per second, gravity and jumping are handled here.
+    // Long frames run as several steps of at most MAX_STEP, so the game keeps real time
+    // at low frame rates.
+    public void update(float tpf, float speedX, float speedZ, boolean jump) {
+        float remaining = Math.min(tpf, MAX_FRAME_TIME);
+        while (remaining > 0f) {
+            float dt = Math.min(remaining, MAX_STEP);
+            step(dt, speedX, speedZ, jump);
+            remaining -= dt;
+        }
+    }
+
+    private void step(float dt, float speedX, float speedZ, boolean jump) {
+        if (jump && onGround) {
+            verticalSpeed = JUMP_SPEED;
+        }
+        verticalSpeed = Math.max(verticalSpeed - GRAVITY * dt, -MAX_FALL_SPEED);
+
+        float dy = verticalSpeed * dt;
+        float movedY = move(1, dy);
+        if (movedY != dy) {
+            // Landed or bumped a ceiling
+            onGround = dy < 0;
+            verticalSpeed = 0f;
+        } else {
+            onGround = false;
+        }
+        move(0, speedX * dt);
+        move(2, speedZ * dt);
+    }
+
+    // Moves along one axis as far as the grid allows and returns the distance actually moved
+    private float move(int axis, float delta) {
+        if (delta == 0f) {
+            return 0f;
+        }
+        float half = WIDTH / 2f;
+        min[0] = position.x - half;
+        min[1] = position.y;
+        min[2] = position.z - half;
+        max[0] = position.x + half;
+        max[1] = position.y + HEIGHT;
+        max[2] = position.z + half;
+
+        float allowed = delta;
+        if (delta > 0) {
+            int first = (int) Math.ceil(max[axis] - EPSILON);
+            int last = (int) Math.ceil(max[axis] + delta) - 1;
+            for (int layer = first; layer <= last; layer++) {
+                if (isLayerBlocked(axis, layer)) {
+                    allowed = Math.max(0f, layer - max[axis]);
+                    break;
+                }
+            }
+        } else {
+            int first = (int) Math.floor(min[axis] + EPSILON) - 1;
+            int last = (int) Math.floor(min[axis] + delta);
+            for (int layer = first; layer >= last; layer--) {
+                if (isLayerBlocked(axis, layer)) {
+                    allowed = Math.min(0f, layer + 1 - min[axis]);
+                    break;
+                }
+            }
+        }
+
+        switch (axis) {
+            case 0: position.x += allowed; break;
+            case 1: position.y += allowed; break;
+            default: position.z += allowed; break;
+        }
+        return allowed;
+    }
+
+    // Whether any solid cell in the given layer overlaps the box on the two other axes
+    private boolean isLayerBlocked(int axis, int layer) {
+        int a = axis == 0 ? 1 : 0;
+        int b = axis == 2 ? 1 : 2;
+        int fromA = (int) Math.floor(min[a] + EPSILON);
+        int toA = (int) Math.ceil(max[a] - EPSILON) - 1;
+        int fromB = (int) Math.floor(min[b] + EPSILON);
+        int toB = (int) Math.ceil(max[b] - EPSILON) - 1;
+
+        cell[axis] = layer;
+        for (int i = fromA; i <= toA; i++) {
+            cell[a] = i;
+            for (int j = fromB; j <= toB; j++) {
+                cell[b] = j;
+                if (solid.isSolid(cell[0], cell[1], cell[2])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
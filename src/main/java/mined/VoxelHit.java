@@ -0,0 +1,56 @@
+package mined;
+
+import com.jme3.math.Vector3f;
+
+// Result of a VoxelRaycast: the solid cell that was hit and the face the ray entered through
+public final class VoxelHit {
+    private final int x, y, z;
+    private final Direction face;
+    private final float distance;
+
+    public VoxelHit(int x, int y, int z, Direction face, float distance) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.face = face;
+        this.distance = distance;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    // Null when the ray started inside the hit cell
+    public Direction getFace() {
+        return face;
+    }
+
+    public float getDistance() {
+        return distance;
+    }
+
+    // Empty cell in front of the hit face, where a new block would go
+    public int getPlaceX() {
+        return face == null ? x : x + (int) face.getNormal().x;
+    }
+
+    public int getPlaceY() {
+        return face == null ? y : y + (int) face.getNormal().y;
+    }
+
+    public int getPlaceZ() {
+        return face == null ? z : z + (int) face.getNormal().z;
+    }
+
+    public Vector3f getCenter() {
+        return new Vector3f(x + 0.5f, y + 0.5f, z + 0.5f);
+    }
+}
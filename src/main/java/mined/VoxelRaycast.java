@@ -0,0 +1,85 @@
+package mined;
+
+import com.jme3.math.Vector3f;
+
+// Grid traversal after Amanatides & Woo: visits every cell the ray passes through, in order,
+// so a lookup costs one solid test per crossed cell instead of a scan over all blocks.
+// Block (x, y, z) occupies the unit cube from (x, y, z) to (x + 1, y + 1, z + 1).
+public final class VoxelRaycast {
+
+    public interface SolidTest {
+        boolean isSolid(int x, int y, int z);
+    }
+
+    private VoxelRaycast() {
+    }
+
+    // Returns the first solid cell within maxDistance of origin, or null
+    public static VoxelHit cast(Vector3f origin, Vector3f direction, float maxDistance, SolidTest solid) {
+        float length = direction.length();
+        if (length == 0f) {
+            return null;
+        }
+        float dx = direction.x / length;
+        float dy = direction.y / length;
+        float dz = direction.z / length;
+
+        int x = (int) Math.floor(origin.x);
+        int y = (int) Math.floor(origin.y);
+        int z = (int) Math.floor(origin.z);
+        if (solid.isSolid(x, y, z)) {
+            return new VoxelHit(x, y, z, null, 0f);
+        }
+
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+
+        // Distance along the ray to cross one whole cell on each axis
+        float deltaX = stepX != 0 ? Math.abs(1f / dx) : Float.POSITIVE_INFINITY;
+        float deltaY = stepY != 0 ? Math.abs(1f / dy) : Float.POSITIVE_INFINITY;
+        float deltaZ = stepZ != 0 ? Math.abs(1f / dz) : Float.POSITIVE_INFINITY;
+
+        // Distance along the ray to the first cell boundary on each axis
+        float maxX = boundaryDistance(origin.x, x, stepX, deltaX);
+        float maxY = boundaryDistance(origin.y, y, stepY, deltaY);
+        float maxZ = boundaryDistance(origin.z, z, stepZ, deltaZ);
+
+        while (true) {
+            float t;
+            Direction face;
+            if (maxX < maxY && maxX < maxZ) {
+                x += stepX;
+                t = maxX;
+                maxX += deltaX;
+                face = stepX > 0 ? Direction.WEST : Direction.EAST;
+            } else if (maxY < maxZ) {
+                y += stepY;
+                t = maxY;
+                maxY += deltaY;
+                face = stepY > 0 ? Direction.DOWN : Direction.UP;
+            } else {
+                z += stepZ;
+                t = maxZ;
+                maxZ += deltaZ;
+                face = stepZ > 0 ? Direction.SOUTH : Direction.NORTH;
+            }
+
+            if (t > maxDistance) {
+                return null;
+            }
+            if (solid.isSolid(x, y, z)) {
+                return new VoxelHit(x, y, z, face, t);
+            }
+        }
+    }
+
+    private static float boundaryDistance(float start, int cell, int step, float delta) {
+        if (step > 0) {
+            return (cell + 1 - start) * delta;
+        } else if (step < 0) {
+            return (start - cell) * delta;
+        }
+        return Float.POSITIVE_INFINITY;
+    }
+}
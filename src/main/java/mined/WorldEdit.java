@@ -0,0 +1,94 @@
+package mined;
+
+// Batch edits over world regions. All voxel writes of an operation go straight into chunk
+// storage and only mark sections dirty; commit() then remeshes each touched section once.
+public class WorldEdit {
+    private final ChunkManager chunkManager;
+    private int changedBlocks;
+
+    // Decides the new block for one cell, or returns null to leave it alone
+    private interface BlockFunction {
+        BlockType apply(int x, int y, int z, BlockType current);
+    }
+
+    public WorldEdit(ChunkManager chunkManager) {
+        this.chunkManager = chunkManager;
+    }
+
+    public int setBlock(int x, int y, int z, BlockType type) {
+        return record(chunkManager.setBlockAt(x, y, z, type) ? 1 : 0);
+    }
+
+    // Corners are inclusive and may be given in any order
+    public int fillBox(int x1, int y1, int z1, int x2, int y2, int z2, BlockType type) {
+        return record(apply(x1, y1, z1, x2, y2, z2, (x, y, z, current) -> type));
+    }
+
+    public int replace(int x1, int y1, int z1, int x2, int y2, int z2, BlockType from, BlockType to) {
+        return record(apply(x1, y1, z1, x2, y2, z2, (x, y, z, current) -> current == from ? to : null));
+    }
+
+    // Clears every block whose center lies within radius of the given point
+    public int clearSphere(float centerX, float centerY, float centerZ, float radius) {
+        float radiusSq = radius * radius;
+        return record(apply(
+            (int) Math.floor(centerX - radius), (int) Math.floor(centerY - radius), (int) Math.floor(centerZ - radius),
+            (int) Math.floor(centerX + radius), (int) Math.floor(centerY + radius), (int) Math.floor(centerZ + radius),
+            (x, y, z, current) -> {
+                float dx = x + 0.5f - centerX;
+                float dy = y + 0.5f - centerY;
+                float dz = z + 0.5f - centerZ;
+                return dx * dx + dy * dy + dz * dz <= radiusSq ? BlockType.AIR : null;
+            }));
+    }
+
+    // Remeshes everything edited so far, on the mesh workers when async is set.
+    // Returns the number of blocks changed since the last commit.
+    public int commit(boolean async) {
+        chunkManager.remeshDirtyChunks(async);
+        int changed = changedBlocks;
+        changedBlocks = 0;
+        return changed;
+    }
+
+    private int record(int changed) {
+        changedBlocks += changed;
+        return changed;
+    }
+
+    private int apply(int x1, int y1, int z1, int x2, int y2, int z2, BlockFunction function) {
+        int minX = Math.min(x1, x2), maxX = Math.max(x1, x2);
+        int minZ = Math.min(z1, z2), maxZ = Math.max(z1, z2);
+        int minY = Math.max(0, Math.min(y1, y2));
+        int maxY = Math.min(ChunkManager.CHUNK_HEIGHT - 1, Math.max(y1, y2));
+        int size = ChunkManager.CHUNK_SIZE;
+        int changed = 0;
+
+        // Walk chunk by chunk so each chunk is looked up once, not once per block
+        for (int chunkX = Math.floorDiv(minX, size); chunkX <= Math.floorDiv(maxX, size); chunkX++) {
+            for (int chunkZ = Math.floorDiv(minZ, size); chunkZ <= Math.floorDiv(maxZ, size); chunkZ++) {
+                Chunk chunk = chunkManager.getChunk(chunkX, chunkZ);
+                if (chunk == null) {
+                    continue;
+                }
+                int fromX = Math.max(minX, chunkX * size) - chunkX * size;
+                int toX = Math.min(maxX, chunkX * size + size - 1) - chunkX * size;
+                int fromZ = Math.max(minZ, chunkZ * size) - chunkZ * size;
+                int toZ = Math.min(maxZ, chunkZ * size + size - 1) - chunkZ * size;
+
+                for (int y = minY; y <= maxY; y++) {
+                    for (int z = fromZ; z <= toZ; z++) {
+                        for (int x = fromX; x <= toX; x++) {
+                            BlockType current = chunk.getBlock(x, y, z);
+                            BlockType next = function.apply(chunk.getX() + x, y, chunk.getZ() + z, current);
+                            if (next != null && chunk.setBlock(x, y, z, next)) {
+                                changed++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,13 @@
+#import "Common/ShaderLib/GLSLCompat.glsllib"
+
+uniform sampler2D m_ColorMap;
+uniform vec2 m_TileSize;
+
+varying vec2 texCoord;
+varying vec2 tileOrigin;
+varying float shade;
+
+void main() {
+    vec4 color = texture2D(m_ColorMap, tileOrigin + clamp(fract(texCoord), 0.001, 0.999) * m_TileSize);
+    gl_FragColor = vec4(color.rgb * shade, 1.0);
+}
@@ -0,0 +1,22 @@
+#import "Common/ShaderLib/GLSLCompat.glsllib"
+
+uniform mat4 g_WorldViewProjectionMatrix;
+
+attribute vec3 inPosition;
+attribute vec3 inNormal;
+// Position within the face in blocks, so merged quads repeat the tile once per block
+attribute vec2 inTexCoord;
+// Lower-left corner of the face's atlas tile
+attribute vec2 inTexCoord2;
+
+varying vec2 texCoord;
+varying vec2 tileOrigin;
+varying float shade;
+
+void main() {
+    texCoord = inTexCoord;
+    tileOrigin = inTexCoord2;
+    // Fixed per-face shading so adjacent faces stay distinguishable without lights
+    shade = inNormal.y > 0.5 ? 1.0 : (inNormal.y < -0.5 ? 0.6 : 0.8);
+    gl_Position = g_WorldViewProjectionMatrix * vec4(inPosition, 1.0);
+}
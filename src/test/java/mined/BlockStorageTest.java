@@ -0,0 +1,89 @@
+package mined;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class BlockStorageTest {
+    private static final int VOLUME = 16 * 16 * 16;
+
+    @Test
+    public void uniformStorageCompactsToOneType() {
+        BlockStorage storage = filled(BlockType.STONE);
+        long packed = storage.getMemoryUsage();
+
+        assertTrue(storage.compact());
+        assertTrue(storage.isUniform());
+        assertTrue(storage.getMemoryUsage() < packed);
+        for (int i = 0; i < VOLUME; i++) {
+            assertEquals(BlockType.STONE, storage.get(i));
+        }
+    }
+
+    @Test
+    public void mixedStorageStaysPacked() {
+        BlockStorage storage = filled(BlockType.STONE);
+        storage.set(VOLUME - 1, BlockType.DIRT);
+
+        assertFalse(storage.compact());
+        assertFalse(storage.isUniform());
+        assertEquals(BlockType.DIRT, storage.get(VOLUME - 1));
+    }
+
+    @Test
+    public void editUnpacksCompactedStorage() {
+        BlockStorage storage = filled(BlockType.STONE);
+        storage.compact();
+
+        // Setting the stored type again keeps the compact form
+        storage.set(5, BlockType.STONE);
+        assertTrue(storage.isUniform());
+
+        storage.set(5, BlockType.SAND);
+        storage.set(6, BlockType.AIR);
+        assertFalse(storage.isUniform());
+        assertEquals(BlockType.SAND, storage.get(5));
+        assertEquals(BlockType.AIR, storage.get(6));
+        assertEquals(BlockType.STONE, storage.get(4));
+        assertEquals(BlockType.STONE, storage.get(VOLUME - 1));
+    }
+
+    @Test
+    public void wideningKeepsEveryEntry() {
+        BlockType[] types = BlockType.values();
+        BlockStorage storage = new BlockStorage(VOLUME);
+        BlockType[] expected = new BlockType[VOLUME];
+        Arrays.fill(expected, BlockType.AIR);
+
+        // Each new type lands on a spread of indices, so entries sit at every offset of a word
+        for (int k = 1; k < types.length; k++) {
+            int bits = storage.getBitsPerEntry();
+            for (int i = 0; i < VOLUME; i++) {
+                if ((i * 31) % (k + 1) == k) {
+                    storage.set(i, types[k]);
+                    expected[i] = types[k];
+                }
+            }
+
+            assertEquals(k + 1, storage.getPaletteSize());
+            // 2 entries fit in 1 bit, 3-4 in 2 bits, 5-8 in 3 bits
+            int neededBits = 32 - Integer.numberOfLeadingZeros(k);
+            assertEquals(Math.max(bits, neededBits), storage.getBitsPerEntry());
+            for (int i = 0; i < VOLUME; i++) {
+                assertEquals(expected[i], storage.get(i), "index " + i + " with " + (k + 1) + " types");
+            }
+        }
+    }
+
+    private static BlockStorage filled(BlockType type) {
+        BlockStorage storage = new BlockStorage(VOLUME);
+        for (int i = 0; i < VOLUME; i++) {
+            storage.set(i, type);
+        }
+        return storage;
+    }
+}
@@ -0,0 +1,146 @@
+package mined;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Downsampled cells used for distant chunk meshes
+public class ChunkLodTest {
+    private static final int SIZE = 16;
+    private static final byte AIR = (byte) BlockType.AIR.ordinal();
+
+    @Test
+    public void emptySectionHasNoCells() {
+        Chunk chunk = newChunk();
+        chunk.setBlock(0, 40, 0, BlockType.STONE);
+        assertNull(chunk.getLodCells(0, 1));
+    }
+
+    @Test
+    public void halfOpaqueCellIsSolid() {
+        // Four of the eight blocks of cell (0, 0, 0) at LOD 1
+        Chunk chunk = newChunk();
+        chunk.setBlock(0, 0, 0, BlockType.STONE);
+        chunk.setBlock(1, 0, 0, BlockType.STONE);
+        chunk.setBlock(0, 0, 1, BlockType.STONE);
+        chunk.setBlock(1, 0, 1, BlockType.DIRT);
+        assertEquals(BlockType.STONE.ordinal(), chunk.getLodCells(0, 1)[0]);
+    }
+
+    @Test
+    public void lessThanHalfOpaqueCellIsAir() {
+        Chunk chunk = newChunk();
+        chunk.setBlock(0, 0, 0, BlockType.STONE);
+        chunk.setBlock(1, 0, 0, BlockType.STONE);
+        chunk.setBlock(0, 1, 1, BlockType.STONE);
+        assertEquals(AIR, chunk.getLodCells(0, 1)[0]);
+    }
+
+    @Test
+    public void cellTakesHighestOpaqueBlock() {
+        // Grass on top of a mostly dirt cell keeps the surface green at a distance
+        Chunk chunk = newChunk();
+        for (int x = 0; x < 4; x++) {
+            for (int z = 0; z < 4; z++) {
+                for (int y = 0; y < 3; y++) {
+                    chunk.setBlock(x, y, z, BlockType.DIRT);
+                }
+                chunk.setBlock(x, 3, z, BlockType.GRASS);
+            }
+        }
+        byte[] cells = chunk.getLodCells(0, 2);
+        assertEquals(BlockType.GRASS.ordinal(), cells[0]);
+        assertEquals(AIR, cells[1]);
+    }
+
+    @Test
+    public void editsRebuildTheCells() {
+        Chunk chunk = newChunk();
+        chunk.setBlock(0, 0, 0, BlockType.STONE);
+        assertEquals(AIR, chunk.getLodCells(0, 3)[0]);
+
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 4; y++) {
+                for (int z = 0; z < 8; z++) {
+                    chunk.setBlock(x, y, z, BlockType.SAND);
+                }
+            }
+        }
+        assertEquals(BlockType.SAND.ordinal(), chunk.getLodCells(0, 3)[0]);
+
+        chunk.setBlock(3, 3, 3, BlockType.AIR);
+        assertEquals(AIR, chunk.getLodCells(0, 3)[0]);
+    }
+
+    @Test
+    public void editsDirtyTheSectionsSharingTheirCell() {
+        Chunk chunk = newChunk();
+        chunk.setBlock(2, 17, 5, BlockType.STONE);
+        chunk.setLive(true);
+
+        // One block above the section floor only touches section 0 through a face at full detail
+        chunk.setBlock(2, 17, 5, BlockType.DIRT);
+        assertEquals(0b10, chunk.takeDirtySections());
+
+        // At LOD 2 the block sits in the bottom cell row, which section 0 meshes against
+        chunk.setLod(2);
+        chunk.setBlock(2, 17, 5, BlockType.SAND);
+        assertEquals(0b11, chunk.takeDirtySections());
+
+        chunk.setBlock(2, 28, 5, BlockType.SAND);
+        assertEquals(0b110, chunk.takeDirtySections());
+    }
+
+    @Test
+    public void matchesBlockByBlockSampling() {
+        Chunk chunk = newChunk();
+        Random random = new Random(7);
+        BlockType[] types = BlockType.values();
+        for (int i = 0; i < 12000; i++) {
+            chunk.setBlock(random.nextInt(SIZE), random.nextInt(48), random.nextInt(SIZE), types[random.nextInt(types.length)]);
+        }
+
+        for (int lod = 1; lod <= Chunk.MAX_LOD; lod++) {
+            for (int sectionY = 0; sectionY < 3; sectionY++) {
+                assertArrayEquals(sample(chunk, sectionY, lod), chunk.getLodCells(sectionY, lod), "lod " + lod);
+            }
+        }
+    }
+
+    private static Chunk newChunk() {
+        return new Chunk(null, 0, 0, SIZE, 256);
+    }
+
+    // Reference implementation of the cell rule, one cell at a time
+    private static byte[] sample(Chunk chunk, int sectionY, int lod) {
+        int scale = 1 << lod;
+        int cells = SIZE / scale;
+        int cellsY = Chunk.SECTION_HEIGHT / scale;
+        byte[] result = new byte[cells * cells * cellsY];
+        for (int cy = 0; cy < cellsY; cy++) {
+            for (int cz = 0; cz < cells; cz++) {
+                for (int cx = 0; cx < cells; cx++) {
+                    int opaque = 0;
+                    int top = AIR;
+                    int y0 = sectionY * Chunk.SECTION_HEIGHT + cy * scale;
+                    for (int y = y0 + scale - 1; y >= y0; y--) {
+                        for (int z = cz * scale; z < (cz + 1) * scale; z++) {
+                            for (int x = cx * scale; x < (cx + 1) * scale; x++) {
+                                BlockType type = chunk.getBlock(x, y, z);
+                                if (BlockRegistry.isOpaque(type) && opaque++ == 0) {
+                                    top = type.ordinal();
+                                }
+                            }
+                        }
+                    }
+                    result[(cy * cells + cz) * cells + cx] = opaque * 2 >= scale * scale * scale ? (byte) top : AIR;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,169 @@
+package mined;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer.Type;
+
+// Greedy meshing must cover exactly the block faces the per-face mesher emits, only with fewer quads
+public class ChunkMesherTest {
+    private static final int SIZE = 16;
+    private static final int HEIGHT = 256;
+
+    @Test
+    public void singleBlock() {
+        Chunk chunk = newChunk();
+        chunk.setBlock(5, 70, 9, BlockType.STONE);
+
+        MeshResult perFace = mesh(chunk, MeshingMode.PER_FACE);
+        MeshResult greedy = mesh(chunk, MeshingMode.GREEDY);
+        assertEquals(6, perFace.quads);
+        assertEquals(6, greedy.quads);
+        assertEquals(perFace.faces, greedy.faces);
+    }
+
+    @Test
+    public void solidSections() {
+        // Three full sections stacked, the middle one has no visible interior at all
+        Chunk chunk = newChunk();
+        fill(chunk, 0, 48, BlockType.STONE);
+        chunk.compactSections();
+
+        MeshResult perFace = mesh(chunk, MeshingMode.PER_FACE);
+        MeshResult greedy = mesh(chunk, MeshingMode.GREEDY);
+        assertEquals(perFace.faces, greedy.faces);
+        // Top, bottom and four sides of a 16x48x16 box
+        assertEquals(2 * SIZE * SIZE + 4 * SIZE * 48, perFace.faces.size());
+        assertTrue(greedy.quads < perFace.quads);
+    }
+
+    @Test
+    public void terrainWithCaves() {
+        Chunk chunk = newChunk();
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                int height = 62 + x / 5 + z / 7;
+                for (int y = 0; y < height; y++) {
+                    BlockType type = y == height - 1 ? BlockType.GRASS : y > height - 4 ? BlockType.DIRT : BlockType.STONE;
+                    chunk.setBlock(x, y, z, type);
+                }
+            }
+        }
+        Random random = new Random(3);
+        BlockType[] types = BlockType.values();
+        for (int i = 0; i < 300; i++) {
+            chunk.setBlock(random.nextInt(SIZE), random.nextInt(80), random.nextInt(SIZE), types[random.nextInt(types.length)]);
+        }
+
+        MeshResult perFace = mesh(chunk, MeshingMode.PER_FACE);
+        MeshResult greedy = mesh(chunk, MeshingMode.GREEDY);
+        assertFalse(perFace.faces.isEmpty());
+        assertEquals(perFace.faces, greedy.faces);
+        assertTrue(greedy.quads < perFace.quads);
+    }
+
+    @Test
+    public void checkerboard() {
+        // Nothing can merge, so both meshers must emit the same quads
+        Chunk chunk = newChunk();
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 16; y < 32; y++) {
+                for (int z = 0; z < SIZE; z++) {
+                    if ((x + y + z) % 2 == 0) {
+                        chunk.setBlock(x, y, z, (x + z) % 4 == 0 ? BlockType.DIRT : BlockType.STONE);
+                    }
+                }
+            }
+        }
+
+        MeshResult perFace = mesh(chunk, MeshingMode.PER_FACE);
+        MeshResult greedy = mesh(chunk, MeshingMode.GREEDY);
+        assertEquals(perFace.faces, greedy.faces);
+        assertEquals(perFace.quads, greedy.quads);
+    }
+
+    private static Chunk newChunk() {
+        return new Chunk(null, 32, -16, SIZE, HEIGHT);
+    }
+
+    private static void fill(Chunk chunk, int fromY, int toY, BlockType type) {
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = fromY; y < toY; y++) {
+                for (int z = 0; z < SIZE; z++) {
+                    chunk.setBlock(x, y, z, type);
+                }
+            }
+        }
+    }
+
+    // Splits every quad into the unit block faces it covers, keyed by atlas tile, cell and normal
+    private static MeshResult mesh(Chunk chunk, MeshingMode mode) {
+        chunk.setMeshingMode(mode);
+        ChunkMeshData data = chunk.buildMeshData(chunk.getAllSectionsMask());
+        MeshResult result = new MeshResult();
+        for (int sectionY = 0; sectionY < chunk.getSectionCount(); sectionY++) {
+            MeshData meshData = data.getMesh(sectionY);
+            if (meshData != null) {
+                addFaces(meshData.createMesh(), result);
+            }
+        }
+        return result;
+    }
+
+    private static void addFaces(Mesh mesh, MeshResult result) {
+        FloatBuffer positions = (FloatBuffer) mesh.getBuffer(Type.Position).getData();
+        FloatBuffer normals = (FloatBuffer) mesh.getBuffer(Type.Normal).getData();
+        FloatBuffer texCoords = (FloatBuffer) mesh.getBuffer(Type.TexCoord).getData();
+        FloatBuffer tiles = (FloatBuffer) mesh.getBuffer(Type.TexCoord2).getData();
+
+        for (int vertex = 0; vertex < mesh.getVertexCount(); vertex += 4) {
+            result.quads++;
+            int[] min = new int[3];
+            int[] max = new int[3];
+            for (int axis = 0; axis < 3; axis++) {
+                float low = Float.MAX_VALUE;
+                float high = -Float.MAX_VALUE;
+                for (int corner = 0; corner < 4; corner++) {
+                    float value = positions.get((vertex + corner) * 3 + axis);
+                    low = Math.min(low, value);
+                    high = Math.max(high, value);
+                }
+                min[axis] = Math.round(low);
+                // A flat axis still spans one cell of faces
+                max[axis] = Math.max(min[axis] + 1, Math.round(high));
+            }
+
+            String key = tiles.get(vertex * 2) + "/" + tiles.get(vertex * 2 + 1) + "|"
+                    + Math.round(normals.get(vertex * 3)) + ","
+                    + Math.round(normals.get(vertex * 3 + 1)) + ","
+                    + Math.round(normals.get(vertex * 3 + 2));
+            int cells = 0;
+            for (int x = min[0]; x < max[0]; x++) {
+                for (int y = min[1]; y < max[1]; y++) {
+                    for (int z = min[2]; z < max[2]; z++) {
+                        assertTrue(result.faces.add(key + "|" + x + "," + y + "," + z), "face emitted twice");
+                        cells++;
+                    }
+                }
+            }
+
+            // The repeat coordinates of the far corner must tile the texture once per block
+            float repeatArea = Math.abs(texCoords.get((vertex + 2) * 2) * texCoords.get((vertex + 2) * 2 + 1));
+            assertEquals(cells, repeatArea, 0.01f);
+        }
+    }
+
+    private static class MeshResult {
+        final Set<String> faces = new HashSet<>();
+        int quads;
+    }
+}